@@ -0,0 +1,120 @@
+package com.library.audit;
+
+import com.library.common.Result;
+import com.library.ratelimit.RateLimitFilter;
+import com.library.ratelimit.RateLimitProperties;
+import com.library.util.JwtPrincipal;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 写操作审计切面：拦截控制器的 POST/PUT/DELETE 方法，记录操作人、耗时和结果后交给 {@link AuditLogWriter} 异步写库
+ * 不记录请求体，避免把密码等敏感字段写入日志表
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "library.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditAspect {
+
+    private final AuditLogWriter writer;
+
+    // 与限流共用可信代理层数，两处记录的客户端 IP 一致
+    private final int forwardedHops;
+
+    public AuditAspect(AuditLogWriter writer, RateLimitProperties rateLimitProperties) {
+        this.writer = writer;
+        this.forwardedHops = rateLimitProperties.getForwardedHops();
+    }
+
+    @Around("within(com.library.controller..*) && ("
+            + "@annotation(org.springframework.web.bind.annotation.PostMapping)"
+            + " || @annotation(org.springframework.web.bind.annotation.PutMapping)"
+            + " || @annotation(org.springframework.web.bind.annotation.DeleteMapping))")
+    public Object audit(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        Object result = null;
+        Throwable error = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            writer.offer(buildEntry(joinPoint, result, error, elapsedMillis));
+        }
+    }
+
+    private AuditEntry buildEntry(ProceedingJoinPoint joinPoint, Object result, Throwable error, long elapsedMillis) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Operation operation = method.getAnnotation(Operation.class);
+        String operationName = operation != null && !operation.summary().isEmpty()
+                ? operation.summary()
+                : method.getDeclaringClass().getSimpleName() + "." + method.getName();
+
+        HttpServletRequest request = currentRequest();
+        String requestMethod = null;
+        String params = null;
+        String ip = null;
+        if (request != null) {
+            requestMethod = request.getMethod() + " " + request.getRequestURI();
+            Object pathVariables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            if (pathVariables instanceof Map<?, ?> map && !map.isEmpty()) {
+                params = map.toString();
+            }
+            if (request.getQueryString() != null) {
+                params = params == null ? request.getQueryString() : params + " " + request.getQueryString();
+            }
+            ip = RateLimitFilter.clientIp(request, forwardedHops);
+        }
+
+        Long userId = null;
+        String username = null;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Long id) {
+            userId = id;
+        }
+        if (authentication != null && authentication.getDetails() instanceof JwtPrincipal principal) {
+            username = principal.getUsername();
+        }
+
+        int status = 1;
+        String errorMsg = null;
+        if (error != null) {
+            status = 0;
+            errorMsg = error.getClass().getSimpleName() + ": " + error.getMessage();
+        } else if (result instanceof Result<?> r && r.getCode() != null && r.getCode() != 200) {
+            status = 0;
+            errorMsg = r.getMessage();
+        }
+
+        return new AuditEntry(userId, truncate(username, 50), truncate(operationName, 50), truncate(requestMethod, 200),
+                params, truncate(ip, 50), status, errorMsg, elapsedMillis, LocalDateTime.now());
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getRequest() : null;
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+}
@@ -0,0 +1,17 @@
+package com.library.audit;
+
+/**
+ * 审计队列满时的丢弃策略，请求线程从不等待数据库
+ */
+public enum AuditDropPolicy {
+
+    /**
+     * 丢弃新来的记录
+     */
+    DROP_NEWEST,
+
+    /**
+     * 丢弃队首最旧的记录，保留最近的操作
+     */
+    DROP_OLDEST
+}
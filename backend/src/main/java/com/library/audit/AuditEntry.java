@@ -0,0 +1,38 @@
+package com.library.audit;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * 一条待写入 operation_log 的审计记录
+ */
+@Value
+public class AuditEntry {
+
+    Long userId;
+
+    String username;
+
+    String operation;
+
+    String method;
+
+    String params;
+
+    String ip;
+
+    /**
+     * 0-失败，1-成功
+     */
+    int status;
+
+    String errorMsg;
+
+    /**
+     * 执行时间(ms)
+     */
+    long executeTime;
+
+    LocalDateTime createTime;
+}
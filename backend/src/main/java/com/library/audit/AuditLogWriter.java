@@ -0,0 +1,185 @@
+package com.library.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 审计日志异步批量写入器
+ * 请求线程只做一次无锁入队；后台线程攒够 flush-size 条或等到 flush-interval 后批量 INSERT。
+ * 队列有界，满时按丢弃策略处理并计数。
+ */
+@Component
+@ConditionalOnProperty(name = "library.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO operation_log "
+            + "(user_id, username, operation, method, params, ip, status, error_msg, execute_time, create_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentLinkedQueue<AuditEntry> queue = new ConcurrentLinkedQueue<>();
+
+    // ConcurrentLinkedQueue.size() 是 O(n)，单独维护计数
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final int capacity;
+
+    private final int flushSize;
+
+    private final long flushIntervalNanos;
+
+    private final AuditDropPolicy dropPolicy;
+
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+
+    private volatile boolean running;
+
+    private volatile Thread worker;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${library.audit.queue-capacity:10000}") int capacity,
+                          @Value("${library.audit.flush-size:200}") int flushSize,
+                          @Value("${library.audit.flush-interval:1000}") long flushIntervalMillis,
+                          @Value("${library.audit.drop-policy:DROP_NEWEST}") AuditDropPolicy dropPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = capacity;
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.dropPolicy = dropPolicy;
+        this.enqueued = Counter.builder("library.audit.entries").tag("result", "enqueued").register(meterRegistry);
+        this.dropped = Counter.builder("library.audit.entries").tag("result", "dropped").register(meterRegistry);
+        this.written = Counter.builder("library.audit.entries").tag("result", "written").register(meterRegistry);
+        this.failed = Counter.builder("library.audit.entries").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("library.audit.queue.size", size, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "audit-log-writer");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        // 停机前把剩余记录写完
+        while (flush() > 0) {
+            // 继续
+        }
+    }
+
+    /**
+     * 入队一条记录，不阻塞，队列满时按策略丢弃
+     *
+     * @return 该记录是否入队
+     */
+    public boolean offer(AuditEntry entry) {
+        if (size.incrementAndGet() > capacity) {
+            if (dropPolicy == AuditDropPolicy.DROP_OLDEST && queue.poll() != null) {
+                size.decrementAndGet();
+                dropped.increment();
+            } else {
+                size.decrementAndGet();
+                dropped.increment();
+                return false;
+            }
+        }
+        queue.offer(entry);
+        enqueued.increment();
+        Thread thread = worker;
+        if (thread != null && size.get() >= flushSize) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private void drainLoop() {
+        long lastFlush = System.nanoTime();
+        while (running) {
+            long waited = System.nanoTime() - lastFlush;
+            if (size.get() < flushSize && waited < flushIntervalNanos) {
+                LockSupport.parkNanos(this, flushIntervalNanos - waited);
+                continue;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                logger.error("Audit log flush failed", e);
+            }
+            lastFlush = System.nanoTime();
+        }
+    }
+
+    /**
+     * 取出最多 flush-size 条记录批量写入
+     *
+     * @return 本批取出的条数
+     */
+    int flush() {
+        List<AuditEntry> batch = new ArrayList<>(Math.min(flushSize, Math.max(size.get(), 1)));
+        AuditEntry entry;
+        while (batch.size() < flushSize && (entry = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(entry);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, e) -> {
+                ps.setObject(1, e.getUserId());
+                ps.setString(2, e.getUsername());
+                ps.setString(3, e.getOperation());
+                ps.setString(4, e.getMethod());
+                ps.setString(5, e.getParams());
+                ps.setString(6, e.getIp());
+                ps.setInt(7, e.getStatus());
+                ps.setString(8, e.getErrorMsg());
+                ps.setLong(9, e.getExecuteTime());
+                ps.setTimestamp(10, Timestamp.valueOf(e.getCreateTime()));
+            });
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            // 审计写失败不重试，避免数据库故障时无限堆积
+            failed.increment(batch.size());
+            logger.warn("Failed to write {} audit entries: {}", batch.size(), e.getMessage());
+        }
+        return batch.size();
+    }
+}
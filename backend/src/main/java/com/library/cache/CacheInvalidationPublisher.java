@@ -0,0 +1,13 @@
+package com.library.cache;
+
+/**
+ * 跨节点缓存失效广播，key 为 null 表示清空整个缓存
+ */
+@FunctionalInterface
+public interface CacheInvalidationPublisher {
+
+    CacheInvalidationPublisher NONE = (cacheName, key) -> {
+    };
+
+    void publish(String cacheName, String key);
+}
@@ -0,0 +1,14 @@
+package com.library.cache;
+
+/**
+ * 缓存名称
+ */
+public final class CacheNames {
+
+    public static final String BOOKS = "books";
+    public static final String USERS = "users";
+    public static final String CATEGORIES = "categories";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,197 @@
+package com.library.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.event.BookChangedEvent;
+import com.library.event.BooksImportedEvent;
+import com.library.event.BorrowEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 图书目录接口的已序列化响应缓存
+ * 缓存键带目录版本号，图书变更提交后版本号加一，旧版本条目不再命中；
+ * 借还只改可借数量且频繁发生，先记为待刷新，由定时任务合并成每个周期至多一次失效；
+ * 变更同时经缓存失效频道广播给其他节点，过期时间兜底广播丢失的情况
+ */
+public class CatalogResponseCache {
+
+    public static final String CACHE_NAME = "catalog-responses";
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, Entry> cache;
+
+    private final CacheInvalidationPublisher publisher;
+
+    private final int minCompressSize;
+
+    private final AtomicBoolean stockChanged = new AtomicBoolean();
+
+    private volatile long version;
+
+    public CatalogResponseCache(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                CacheInvalidationPublisher publisher,
+                                long maxSize,
+                                Duration ttl,
+                                int minCompressSize) {
+        this.objectMapper = objectMapper;
+        this.publisher = publisher;
+        this.minCompressSize = minCompressSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 按当前版本取缓存的响应，未命中时生成并序列化；同一个键的并发请求只生成一次
+     * 版本号在生成前读取，生成期间发生的变更会让这份结果落在旧版本下，不会被后续请求读到
+     */
+    public Entry get(String key, Supplier<?> body) {
+        return cache.get(version + ":" + key, k -> serialize(body.get()));
+    }
+
+    /**
+     * 序列化但不缓存，用于关键词检索这类长尾请求
+     */
+    public Entry serialize(Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog response", e);
+        }
+        byte[] gzip = json.length >= minCompressSize ? gzip(json) : null;
+        return new Entry(json, gzip, "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 本节点目录变更后调用，作废本地响应并通知其他节点
+     */
+    public void invalidate() {
+        invalidateLocal();
+        publisher.publish(CACHE_NAME, null);
+    }
+
+    /**
+     * 收到其他节点的失效广播时只作废本地响应
+     */
+    public synchronized void invalidateLocal() {
+        version++;
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        // 本次失效已覆盖此前的库存变更
+        stockChanged.set(false);
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        stockChanged.set(false);
+        invalidate();
+    }
+
+    /**
+     * 借阅和归还改变可借数量，续借不影响目录；在库存写线程上执行，只做标记
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowEvent(BorrowEvent event) {
+        if (event.getType() != BorrowEvent.Type.RENEWED) {
+            stockChanged.set(true);
+        }
+    }
+
+    /**
+     * 把一个周期内的库存变更合并为一次失效和一次广播，目录上的可借数量最多滞后一个周期
+     */
+    @Scheduled(fixedDelayString = "${library.http-cache.stock-flush-interval:1000}")
+    public void flushStockChanges() {
+        if (stockChanged.getAndSet(false)) {
+            invalidate();
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一份序列化结果，ETag 取 JSON 摘要；压缩与否是同一表示的两种编码，因此使用弱 ETag
+     */
+    public record Entry(byte[] json, byte[] gzip, String etag) {
+
+        public ResponseEntity<byte[]> toResponse(String acceptEncoding) {
+            return toResponse(acceptEncoding, null);
+        }
+
+        /**
+         * 请求带匹配的 If-None-Match（或未带 If-None-Match 而 If-Modified-Since 不早于 lastModified）
+         * 时由 Spring MVC 改写为不带响应体的 304
+         */
+        public ResponseEntity<byte[]> toResponse(String acceptEncoding, LocalDateTime lastModified) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .eTag(etag);
+            if (lastModified != null) {
+                builder.lastModified(lastModified.atZone(ZoneId.systemDefault()));
+            }
+            if (gzip != null && acceptsGzip(acceptEncoding)) {
+                return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+            }
+            return builder.body(json);
+        }
+    }
+}
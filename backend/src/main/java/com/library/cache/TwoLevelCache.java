@@ -0,0 +1,161 @@
+package com.library.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 两级缓存：L1 为进程内 Caffeine，L2 为 Redis
+ * 读依次查 L1、L2，L2 命中回填 L1；写入作用于两级，失效同时作用于两级并广播给其他节点丢弃 L1。
+ * 写入只是加载后的回填，数据变更一律走失效，因此写入不广播，避免一个节点的未命中作废其他节点的 L1。
+ * L2 不可用时记录告警并退化为只用 L1。
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationPublisher publisher;
+
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+
+    /**
+     * @param remote L2 缓存，为 null 时只使用 L1
+     */
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                         Cache remote,
+                         CacheInvalidationPublisher publisher,
+                         MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+        this.localHits = counter(meterRegistry, name, "l1_hit");
+        this.remoteHits = counter(meterRegistry, name, "l2_hit");
+        this.misses = counter(meterRegistry, name, "miss");
+    }
+
+    private static Counter counter(MeterRegistry registry, String cache, String result) {
+        return Counter.builder("library.cache.gets")
+                .description("两级缓存读取结果")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        if (remote != null) {
+            try {
+                ValueWrapper wrapper = remote.get(key);
+                if (wrapper != null && wrapper.get() != null) {
+                    remoteHits.increment();
+                    local.put(localKey, wrapper.get());
+                    return wrapper.get();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("L2 cache read failed - cache: {}, key: {}, error: {}", name, key, e.getMessage());
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) value;
+        }
+        try {
+            T loaded = valueLoader.call();
+            if (loaded != null) {
+                put(key, loaded);
+            }
+            return loaded;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        if (remote != null) {
+            try {
+                remote.put(key, value);
+            } catch (RuntimeException e) {
+                logger.warn("L2 cache write failed - cache: {}, key: {}, error: {}", name, key, e.getMessage());
+            }
+        }
+        local.put(String.valueOf(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (remote != null) {
+            try {
+                remote.evict(key);
+            } catch (RuntimeException e) {
+                logger.warn("L2 cache evict failed - cache: {}, key: {}, error: {}", name, key, e.getMessage());
+            }
+        }
+        local.invalidate(String.valueOf(key));
+        publisher.publish(name, String.valueOf(key));
+    }
+
+    @Override
+    public void clear() {
+        if (remote != null) {
+            try {
+                remote.clear();
+            } catch (RuntimeException e) {
+                logger.warn("L2 cache clear failed - cache: {}, error: {}", name, e.getMessage());
+            }
+        }
+        local.invalidateAll();
+        publisher.publish(name, null);
+    }
+
+    /**
+     * 收到其他节点的失效广播时只丢弃本地 L1，key 为 null 时清空
+     */
+    public void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+}
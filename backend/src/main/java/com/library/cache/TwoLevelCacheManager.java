@@ -0,0 +1,44 @@
+package com.library.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 两级缓存管理器，缓存集合在启动时固定
+ * 对外暴露的缓存经事务感知包装，写操作在事务提交后才生效，避免提交前被旧值回填
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final Map<String, TwoLevelCache> caches = new LinkedHashMap<>();
+    private final Map<String, Cache> transactionAwareCaches = new LinkedHashMap<>();
+
+    public TwoLevelCacheManager(Collection<TwoLevelCache> caches) {
+        for (TwoLevelCache cache : caches) {
+            this.caches.put(cache.getName(), cache);
+            this.transactionAwareCaches.put(cache.getName(), new TransactionAwareCacheDecorator(cache));
+        }
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return transactionAwareCaches.get(name);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public void evictLocal(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictLocal(key);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.library.common;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ * nextCursor 为空表示没有下一页；total 仅在请求 withTotal=true 时返回
+ */
+@Data
+public class CursorPage<T> {
+    private List<T> records;
+    private Integer size;
+    private String nextCursor;
+    private Boolean hasMore;
+    private Long total;
+
+    public static final int MAX_SIZE = 500;
+
+    public static int normalizeSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+
+    /**
+     * 由多查一条的结果构建分页：rows 最多 size + 1 条，多出的一条只用于判断是否还有下一页
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        CursorPage<T> page = new CursorPage<>();
+        boolean hasMore = rows.size() > size;
+        List<T> records = hasMore ? rows.subList(0, size) : rows;
+        page.setRecords(records);
+        page.setSize(size);
+        page.setHasMore(hasMore);
+        page.setNextCursor(hasMore ? cursorOf.apply(records.get(records.size() - 1)) : null);
+        return page;
+    }
+}
@@ -0,0 +1,213 @@
+package com.library.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.cache.CacheInvalidationPublisher;
+import com.library.cache.CacheNames;
+import com.library.cache.CatalogResponseCache;
+import com.library.cache.TwoLevelCache;
+import com.library.cache.TwoLevelCacheManager;
+import com.library.entity.Book;
+import com.library.entity.BookCategory;
+import com.library.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 两级缓存配置：Caffeine 本地缓存 + Redis 共享缓存，Redis 发布订阅广播失效
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+
+    public static final String INVALIDATION_CHANNEL = "library:cache:invalidate";
+
+    private static final String CLEAR_ALL = "*";
+
+    // 节点标识，忽略自己发出的失效消息
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ObjectProvider<RedisMessageListenerContainer> listenerContainer;
+
+    public CacheConfig(ObjectProvider<RedisMessageListenerContainer> listenerContainer) {
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Value("${library.cache.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${library.cache.local-max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${library.cache.local-ttl:60s}")
+    private Duration localTtl;
+
+    @Value("${library.cache.redis-ttl:10m}")
+    private Duration redisTtl;
+
+    @Value("${library.http-cache.max-size:1000}")
+    private long responseMaxSize;
+
+    @Value("${library.http-cache.ttl:30s}")
+    private Duration responseTtl;
+
+    @Value("${library.http-cache.min-compress-size:2048}")
+    private int minCompressSize;
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate redisTemplate,
+                                             ObjectMapper objectMapper,
+                                             MeterRegistry meterRegistry) {
+        Map<String, Class<?>> valueTypes = new HashMap<>();
+        valueTypes.put(CacheNames.BOOKS, Book.class);
+        valueTypes.put(CacheNames.USERS, User.class);
+        valueTypes.put(CacheNames.CATEGORIES, BookCategory.class);
+
+        // 用户缓存含密码哈希，只放本地 L1，不写入 Redis；失效仍经频道广播
+        Map<String, Class<?>> remoteTypes = new HashMap<>(valueTypes);
+        remoteTypes.remove(CacheNames.USERS);
+
+        RedisCacheManager redisCacheManager = redisEnabled
+                ? redisCacheManager(connectionFactory, objectMapper, remoteTypes)
+                : null;
+        CacheInvalidationPublisher publisher = redisEnabled
+                ? invalidationPublisher(redisTemplate)
+                : CacheInvalidationPublisher.NONE;
+
+        List<TwoLevelCache> caches = new ArrayList<>();
+        for (String name : valueTypes.keySet()) {
+            com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                    .maximumSize(localMaxSize)
+                    .expireAfterWrite(localTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, local, name);
+            Cache remote = redisCacheManager != null && remoteTypes.containsKey(name)
+                    ? redisCacheManager.getCache(name)
+                    : null;
+            caches.add(new TwoLevelCache(name, local, remote, publisher, meterRegistry));
+        }
+        return new TwoLevelCacheManager(caches);
+    }
+
+    /**
+     * 图书目录接口的序列化响应缓存，与对象缓存共用失效频道
+     */
+    @Bean
+    public CatalogResponseCache catalogResponseCache(StringRedisTemplate redisTemplate,
+                                                     ObjectMapper objectMapper,
+                                                     MeterRegistry meterRegistry) {
+        CacheInvalidationPublisher publisher = redisEnabled
+                ? invalidationPublisher(redisTemplate)
+                : CacheInvalidationPublisher.NONE;
+        return new CatalogResponseCache(objectMapper, meterRegistry, publisher,
+                responseMaxSize, responseTtl, minCompressSize);
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                                ObjectMapper objectMapper,
+                                                Map<String, Class<?>> valueTypes) {
+        Map<String, RedisCacheConfiguration> configurations = new HashMap<>();
+        valueTypes.forEach((name, type) -> configurations.put(name, RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(redisTtl)
+                .prefixCacheNameWith("library:cache:")
+                .disableCachingNullValues()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new Jackson2JsonRedisSerializer<>(objectMapper, type)))));
+        RedisCacheManager manager = RedisCacheManager.builder(connectionFactory)
+                .withInitialCacheConfigurations(configurations)
+                .disableCreateOnMissingCache()
+                .build();
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    private CacheInvalidationPublisher invalidationPublisher(StringRedisTemplate redisTemplate) {
+        return (cacheName, key) -> {
+            try {
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                        nodeId + "\n" + cacheName + "\n" + (key == null ? CLEAR_ALL : "k:" + key));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to publish cache invalidation - cache: {}, key: {}, error: {}",
+                        cacheName, key, e.getMessage());
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "library.cache.redis-enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager,
+                                                                            CatalogResponseCache responseCache) {
+        // Redis 不可用时不阻塞启动，由下方定时任务补订阅
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+            if (parts.length < 3 || nodeId.equals(parts[0])) {
+                return;
+            }
+            if (CatalogResponseCache.CACHE_NAME.equals(parts[1])) {
+                responseCache.invalidateLocal();
+                return;
+            }
+            cacheManager.evictLocal(parts[1], CLEAR_ALL.equals(parts[2]) ? null : parts[2].substring(2));
+        }, new ChannelTopic(INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    /**
+     * 订阅失效频道，失败时只告警，等待下次重试
+     */
+    @Scheduled(fixedDelayString = "${library.cache.subscribe-retry-interval:30000}")
+    public void subscribeInvalidation() {
+        if (!redisEnabled) {
+            return;
+        }
+        RedisMessageListenerContainer container = listenerContainer.getIfAvailable();
+        if (container == null || container.isRunning()) {
+            return;
+        }
+        try {
+            container.start();
+            logger.info("Subscribed to cache invalidation channel: {}", INVALIDATION_CHANNEL);
+        } catch (RuntimeException e) {
+            container.stop();
+            logger.warn("Cache invalidation subscription failed, will retry - error: {}", e.getMessage());
+        }
+    }
+}
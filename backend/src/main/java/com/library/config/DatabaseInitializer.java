@@ -1,180 +0,0 @@
-package com.library.config;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Profile;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.stereotype.Component;
-
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.sql.Connection;
-import java.sql.Statement;
-import java.util.stream.Collectors;
-
-@Component
-@Profile("!test")
-public class DatabaseInitializer implements CommandLineRunner {
-
-    private static final Logger logger = LoggerFactory.getLogger(DatabaseInitializer.class);
-
-    @Value("${spring.datasource.url}")
-    private String jdbcUrl;
-
-    @Value("${spring.datasource.username}")
-    private String username;
-
-    @Value("${spring.datasource.password}")
-    private String password;
-
-    private final JdbcTemplate jdbcTemplate;
-
-    public DatabaseInitializer(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
-    }
-
-    @Override
-    public void run(String... args) throws Exception {
-        logger.info("========================================");
-        logger.info("Starting database initialization...");
-        logger.info("========================================");
-
-        try {
-            // 创建数据库（如果不存在）
-            createDatabaseIfNotExists();
-
-            // 执行 schema.sql
-            executeSchemaSql();
-
-            logger.info("========================================");
-            logger.info("Database initialization completed successfully!");
-            logger.info("========================================");
-        } catch (Exception e) {
-            logger.error("========================================");
-            logger.error("Database initialization failed!", e);
-            logger.error("========================================");
-            // 不抛出异常，允许应用继续启动
-        }
-    }
-
-    private void createDatabaseIfNotExists() {
-        try {
-            String dbName = extractDatabaseName();
-            
-            // 构建基础 URL（不带数据库名，但保留其他参数）
-            // 先移除查询参数，找到数据库名位置
-            int queryIndex = jdbcUrl.indexOf('?');
-            String urlWithoutParams = (queryIndex != -1) ? jdbcUrl.substring(0, queryIndex) : jdbcUrl;
-            String params = (queryIndex != -1) ? jdbcUrl.substring(queryIndex) : "";
-            
-            // 找到最后一个 / 之前的部分（主机:端口）
-            int lastSlash = urlWithoutParams.lastIndexOf('/');
-            String baseUrl = urlWithoutParams.substring(0, lastSlash + 1);
-            
-            // 构建连接 URL：基础 URL + 参数
-            String connectionUrl = baseUrl + params;
-
-            logger.info("Connecting to MySQL server to create database '{}'...", dbName);
-            logger.info("Connection URL: {}", connectionUrl);
-
-            Connection conn = java.sql.DriverManager.getConnection(connectionUrl, username, password);
-            Statement stmt = conn.createStatement();
-
-            String createDbSql = String.format(
-                "CREATE DATABASE IF NOT EXISTS `%s` CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci",
-                dbName
-            );
-
-            logger.info("Executing: {}", createDbSql);
-            stmt.execute(createDbSql);
-
-            stmt.close();
-            conn.close();
-
-            logger.info("Database '{}' created or already exists", dbName);
-        } catch (Exception e) {
-            logger.error("Failed to create database", e);
-            throw new RuntimeException("Failed to create database: " + e.getMessage(), e);
-        }
-    }
-
-    private void executeSchemaSql() {
-        try {
-            logger.info("Executing schema.sql...");
-
-            ClassPathResource resource = new ClassPathResource("schema.sql");
-
-            if (!resource.exists()) {
-                logger.warn("schema.sql not found in classpath. Skipping schema execution.");
-                return;
-            }
-
-            String sqlContent = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)
-            ).lines().collect(Collectors.joining("\n"));
-
-            // 分割 SQL 语句 - 按分号分割，然后过滤空语句和注释
-            String[] statements = sqlContent.split(";");
-
-            for (String statement : statements) {
-                String trimmed = statement.trim();
-
-                // 跳过空语句和注释
-                if (trimmed.isEmpty() || trimmed.startsWith("--") || trimmed.startsWith("/*")) {
-                    continue;
-                }
-
-                // 跳过 USE 语句
-                if (trimmed.toUpperCase().startsWith("USE ")) {
-                    continue;
-                }
-
-                try {
-                    logger.debug("Executing SQL: {}", trimmed.substring(0, Math.min(100, trimmed.length())) + "...");
-
-                    try {
-                        jdbcTemplate.execute(trimmed);
-                    } catch (Exception e) {
-                        // 记录错误但继续执行（允许部分失败，如表已存在）
-                        logger.warn("SQL execution warning: {} - {}", e.getMessage(), trimmed.substring(0, Math.min(50, trimmed.length())));
-                    }
-
-                } catch (Exception e) {
-                    logger.warn("Error processing statement: {}", trimmed.substring(0, Math.min(50, trimmed.length())));
-                }
-            }
-
-            logger.info("schema.sql execution completed");
-
-        } catch (Exception e) {
-            logger.error("Failed to execute schema.sql", e);
-            throw new RuntimeException("Failed to execute schema.sql: " + e.getMessage(), e);
-        }
-    }
-
-    private String extractDatabaseName() {
-        try {
-            String url = jdbcUrl;
-
-            // 移除查询参数
-            int queryIndex = url.indexOf('?');
-            if (queryIndex != -1) {
-                url = url.substring(0, queryIndex);
-            }
-
-            // 提取最后一个 / 后的数据库名
-            int lastSlash = url.lastIndexOf('/');
-            if (lastSlash != -1 && lastSlash < url.length() - 1) {
-                return url.substring(lastSlash + 1);
-            }
-
-            throw new IllegalArgumentException("Could not extract database name from URL: " + jdbcUrl);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to extract database name", e);
-        }
-    }
-}
@@ -3,6 +3,8 @@ package com.library.config;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -18,4 +20,13 @@ public class MybatisPlusConfig {
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
         return interceptor;
     }
-}
\ No newline at end of file
+
+    /**
+     * SQL 耗时与行数指标，由 MyBatis-Plus 自动注册为 MyBatis 插件
+     */
+    @Bean
+    @ConditionalOnProperty(name = "library.db.metrics-enabled", havingValue = "true", matchIfMissing = true)
+    public QueryMetricsInterceptor queryMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new QueryMetricsInterceptor(meterRegistry);
+    }
+}
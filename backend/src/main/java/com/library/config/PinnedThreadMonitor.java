@@ -0,0 +1,104 @@
+package com.library.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 虚拟线程 pinning 检测
+ * 通过 JFR 订阅 jdk.VirtualThreadPinned：虚拟线程在 synchronized 或本地方法中阻塞超过阈值时，
+ * 计数 library.threads.pinned，并对每个不同的栈顶位置打印一次告警堆栈，用于定位需要改为 ReentrantLock 的代码。
+ * 只在开启虚拟线程时启用；JDK 21 以下没有该事件，订阅不会产生任何数据。
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class PinnedThreadMonitor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final Counter pinned;
+
+    // 已告警过的栈顶位置，同一处 pinning 只打一次堆栈
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    private volatile RecordingStream stream;
+
+    public PinnedThreadMonitor(MeterRegistry meterRegistry,
+                               @Value("${library.threads.pinned-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+        this.pinned = Counter.builder("library.threads.pinned")
+                .description("虚拟线程阻塞时被固定在载体线程上的次数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        try {
+            RecordingStream rs = new RecordingStream();
+            rs.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            rs.onEvent(PINNED_EVENT, this::onPinned);
+            rs.startAsync();
+            stream = rs;
+            logger.info("Virtual thread pinning monitor started - threshold: {}", threshold);
+        } catch (Exception e) {
+            // JFR 不可用时不影响启动
+            logger.warn("Failed to start virtual thread pinning monitor: {}", e.getMessage());
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinned.increment();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String site = frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .filter(f -> !f.getMethod().getType().getName().startsWith("java."))
+                .findFirst()
+                .map(PinnedThreadMonitor::describe)
+                .orElse("unknown");
+        if (reportedSites.add(site)) {
+            StringBuilder trace = new StringBuilder();
+            frames.stream().limit(LOGGED_FRAMES).forEach(f -> trace.append("\n\tat ").append(describe(f)));
+            logger.warn("Virtual thread pinned for {} ms at {}{}",
+                    event.getDuration().toMillis(), site, trace);
+        }
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream rs = stream;
+        stream = null;
+        if (rs != null) {
+            rs.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+}
@@ -0,0 +1,120 @@
+package com.library.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 MappedStatement 记录 SQL 耗时和影响行数
+ * 指标 library.db.query（Timer）与 library.db.query.rows（DistributionSummary），
+ * 以 Mapper 简单类名加方法名作为 statement 标签，直方图是否发布由 management.metrics.distribution 配置。
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class QueryMetricsInterceptor implements Interceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    // 每条语句的计量器只构建一次，避免每次执行都走注册表查找
+    private final Map<String, StatementMeters> meters = new ConcurrentHashMap<>();
+
+    public QueryMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        boolean success = false;
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            StatementMeters m = meters.computeIfAbsent(ms.getId(), id -> new StatementMeters(id, ms));
+            long elapsed = System.nanoTime() - start;
+            if (success) {
+                m.success.record(elapsed, TimeUnit.NANOSECONDS);
+                long rows = rowCount(result);
+                if (rows >= 0) {
+                    m.rows.record(rows);
+                }
+            } else {
+                m.error.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 查询返回结果集行数，增删改返回影响行数；游标等无法得知时返回 -1
+     */
+    static long rowCount(Object result) {
+        if (result instanceof Collection<?> c) {
+            return c.size();
+        }
+        if (result instanceof Number n) {
+            return n.longValue();
+        }
+        return -1;
+    }
+
+    /**
+     * com.library.mapper.BookMapper.selectById -> BookMapper.selectById
+     */
+    static String statementName(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? id.substring(type + 1) : id;
+    }
+
+    private final class StatementMeters {
+
+        final Timer success;
+        final Timer error;
+        final DistributionSummary rows;
+
+        StatementMeters(String id, MappedStatement ms) {
+            String statement = statementName(id);
+            String type = ms.getSqlCommandType().name();
+            this.success = timer(statement, type, "success");
+            this.error = timer(statement, type, "error");
+            this.rows = DistributionSummary.builder("library.db.query.rows")
+                    .description("SQL 返回或影响的行数")
+                    .tag("statement", statement)
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(String statement, String type, String outcome) {
+            return Timer.builder("library.db.query")
+                    .description("Mapper 语句执行耗时")
+                    .tag("statement", statement)
+                    .tag("type", type)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.library.controller;
 
-import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.library.cache.CatalogResponseCache;
 import com.library.common.Result;
+import com.library.dto.ImportJob;
 import com.library.entity.Book;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
+import com.library.export.ExportFormat;
+import com.library.export.ExportResponses;
+import com.library.service.BookImportService;
 import com.library.service.BookService;
+import com.library.service.CategoryService;
+import com.library.service.ExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
 
 @RestController
 @RequestMapping("/api/books")
@@ -24,87 +38,139 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CatalogResponseCache responseCache;
+
+    /**
+     * 不带关键词的分页结果按目录版本缓存序列化后的响应体，关键词检索只计算 ETag
+     */
     @GetMapping
     @Operation(summary = "获取图书列表")
-    public Result<IPage<Book>> getBookList(
+    public ResponseEntity<byte[]> getBookList(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String keyword) {
-        try {
-            logger.info("Fetching book list - page: {}, size: {}, keyword: {}", page, size, keyword);
-            IPage<Book> result = bookService.getBookList(page, size, keyword);
-            return Result.success(result);
-        } catch (Exception e) {
-            logger.error("Failed to fetch book list", e);
-            return Result.error(500, "获取图书列表失败: " + e.getMessage());
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Long categoryId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        requireCategory(categoryId);
+        logger.info("Fetching book list - page: {}, size: {}, keyword: {}, categoryId: {}", page, size, keyword, categoryId);
+        if (keyword != null && !keyword.isEmpty()) {
+            return responseCache.serialize(Result.success(bookService.getBookList(page, size, keyword, categoryId)))
+                    .toResponse(acceptEncoding);
+        }
+        return responseCache.get("page:" + page + ":" + size + ":" + categoryId,
+                        () -> Result.success(bookService.getBookList(page, size, null, categoryId)))
+                .toResponse(acceptEncoding);
+    }
+
+    @GetMapping(params = "after")
+    @Operation(summary = "游标分页获取图书列表", description = "按图书ID升序，首页传空的 after，之后传上一页返回的 nextCursor")
+    public ResponseEntity<byte[]> getBookListByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @RequestParam(required = false) Long categoryId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (keyword != null && !keyword.isEmpty()) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "关键词检索请使用页码分页");
+        }
+        requireCategory(categoryId);
+        logger.info("Fetching book list by cursor - size: {}, withTotal: {}, categoryId: {}", size, withTotal, categoryId);
+        return responseCache.get("cursor:" + after + ":" + size + ":" + withTotal + ":" + categoryId,
+                        () -> Result.success(bookService.getBookListAfter(after, size, withTotal, categoryId)))
+                .toResponse(acceptEncoding);
+    }
+
+    /**
+     * 分类在内存中校验，不存在的分类直接返回 404 而不是空列表
+     */
+    private void requireCategory(Long categoryId) {
+        if (categoryId != null && categoryService.getCategory(categoryId) == null) {
+            throw ErrorCode.CATEGORY_NOT_FOUND.exception();
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "批量导入图书", description = "上传 CSV（首行为表头）或 JSON Lines 文件，按 ISBN 新增或更新，返回导入任务")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<ImportJob> importBooks(@RequestParam("file") MultipartFile file,
+                                         @RequestParam(required = false) String format) {
+        return Result.success("导入任务已提交", bookImportService.submit(file, format));
+    }
+
+    @GetMapping("/import/{jobId}")
+    @Operation(summary = "查询图书导入任务进度")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<ImportJob> getImportJob(@PathVariable String jobId) {
+        ImportJob job = bookImportService.getJob(jobId);
+        if (job == null) {
+            throw ErrorCode.IMPORT_JOB_NOT_FOUND.exception();
+        }
+        return Result.success(job);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "导出图书", description = "流式导出全部图书，format 为 csv 或 ndjson，gzip=true 时输出 .gz 文件")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportBooks(@RequestParam(defaultValue = "csv") String format,
+                            @RequestParam(defaultValue = "false") boolean gzip,
+                            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        long start = System.currentTimeMillis();
+        try (OutputStream out = ExportResponses.open(response, "books", exportFormat, gzip)) {
+            long rows = exportService.exportBooks(exportFormat, out);
+            logger.info("Exported books - rows: {}, format: {}, gzip: {}, {} ms",
+                    rows, exportFormat, gzip, System.currentTimeMillis() - start);
         }
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "获取图书详情")
-    public Result<Book> getBookById(@PathVariable Long id) {
-        try {
-            logger.info("Fetching book details - id: {}", id);
-            Book book = bookService.getBookById(id);
-            if (book == null) {
-                return Result.error(404, "图书不存在");
-            }
-            return Result.success(book);
-        } catch (Exception e) {
-            logger.error("Failed to fetch book details - id: {}", id, e);
-            return Result.error(500, "获取图书详情失败: " + e.getMessage());
+    public ResponseEntity<byte[]> getBookById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.info("Fetching book details - id: {}", id);
+        Book book = bookService.getBookById(id);
+        if (book == null) {
+            throw ErrorCode.BOOK_NOT_FOUND.exception();
         }
+        // 单本图书已有对象缓存，序列化开销小，不进响应缓存；update_time 随库存变化由数据库刷新
+        return responseCache.serialize(Result.success(book)).toResponse(acceptEncoding, book.getUpdateTime());
     }
 
     @PostMapping
     @Operation(summary = "添加图书")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<Book> addBook(@RequestBody Book book) {
-        try {
-            logger.info("Adding new book - title: {}, isbn: {}", book.getTitle(), book.getIsbn());
-            Book savedBook = bookService.addBook(book);
-            return Result.success("添加成功", savedBook);
-        } catch (RuntimeException e) {
-            logger.error("Failed to add book - title: {}", book.getTitle(), e);
-            return Result.error(400, e.getMessage());
-        } catch (Exception e) {
-            logger.error("Failed to add book - title: {}", book.getTitle(), e);
-            return Result.error(500, "添加图书失败: " + e.getMessage());
-        }
+        logger.info("Adding new book - title: {}, isbn: {}", book.getTitle(), book.getIsbn());
+        return Result.success("添加成功", bookService.addBook(book));
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "更新图书")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<Book> updateBook(@PathVariable Long id, @RequestBody Book book) {
-        try {
-            logger.info("Updating book - id: {}, title: {}", id, book.getTitle());
-            book.setId(id);
-            Book updatedBook = bookService.updateBook(book);
-            return Result.success("更新成功", updatedBook);
-        } catch (RuntimeException e) {
-            logger.error("Failed to update book - id: {}", id, e);
-            return Result.error(400, e.getMessage());
-        } catch (Exception e) {
-            logger.error("Failed to update book - id: {}", id, e);
-            return Result.error(500, "更新图书失败: " + e.getMessage());
-        }
+        logger.info("Updating book - id: {}, title: {}", id, book.getTitle());
+        book.setId(id);
+        return Result.success("更新成功", bookService.updateBook(book));
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "删除图书")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<Void> deleteBook(@PathVariable Long id) {
-        try {
-            logger.info("Deleting book - id: {}", id);
-            bookService.deleteBook(id);
-            return Result.success("删除成功", null);
-        } catch (RuntimeException e) {
-            logger.error("Failed to delete book - id: {}", id, e);
-            return Result.error(400, e.getMessage());
-        } catch (Exception e) {
-            logger.error("Failed to delete book - id: {}", id, e);
-            return Result.error(500, "删除图书失败: " + e.getMessage());
-        }
+        logger.info("Deleting book - id: {}", id);
+        bookService.deleteBook(id);
+        return Result.success("删除成功", null);
     }
 }
@@ -1,19 +1,33 @@
 package com.library.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.library.common.CursorPage;
 import com.library.common.Result;
+import com.library.dto.BatchBorrowRequest;
+import com.library.dto.BatchBorrowResult;
 import com.library.dto.BorrowRecordDTO;
 import com.library.entity.BorrowRecord;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
+import com.library.export.ExportFormat;
+import com.library.export.ExportResponses;
 import com.library.service.BorrowService;
+import com.library.service.ExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 @RestController
 @RequestMapping("/api/borrow")
 @Tag(name = "借阅管理", description = "借阅相关接口")
@@ -24,6 +38,9 @@ public class BorrowController {
     @Autowired
     private BorrowService borrowService;
 
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping
     @Operation(summary = "获取借阅列表（管理员）")
     public Result<IPage<BorrowRecord>> getBorrowList(
@@ -31,13 +48,36 @@ public class BorrowController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) String status) {
-        try {
-            logger.info("Fetching borrow list - page: {}, size: {}, userId: {}, status: {}", page, size, userId, status);
-            IPage<BorrowRecord> result = borrowService.getBorrowList(page, size, userId, status);
-            return Result.success(result);
-        } catch (Exception e) {
-            logger.error("Failed to fetch borrow list", e);
-            return Result.error(500, "获取借阅列表失败: " + e.getMessage());
+        logger.info("Fetching borrow list - page: {}, size: {}, userId: {}, status: {}", page, size, userId, status);
+        return Result.success(borrowService.getBorrowList(page, size, userId, status));
+    }
+
+    @GetMapping(params = "after")
+    @Operation(summary = "游标分页获取借阅列表（管理员）", description = "按借阅时间倒序，首页传空的 after，之后传上一页返回的 nextCursor")
+    public Result<CursorPage<BorrowRecord>> getBorrowListByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        logger.info("Fetching borrow list by cursor - size: {}, userId: {}, status: {}", size, userId, status);
+        return Result.success(borrowService.getBorrowListAfter(after, size, userId, status, withTotal));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "导出借阅记录（管理员）", description = "流式导出，format 为 csv 或 ndjson，gzip=true 时输出 .gz 文件")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportBorrowRecords(@RequestParam(required = false) Long userId,
+                                    @RequestParam(required = false) String status,
+                                    @RequestParam(defaultValue = "csv") String format,
+                                    @RequestParam(defaultValue = "false") boolean gzip,
+                                    HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        long start = System.currentTimeMillis();
+        try (OutputStream out = ExportResponses.open(response, "borrow-records", exportFormat, gzip)) {
+            long rows = exportService.exportBorrowRecords(userId, status, exportFormat, out);
+            logger.info("Exported borrow records - rows: {}, userId: {}, status: {}, format: {}, gzip: {}, {} ms",
+                    rows, userId, status, exportFormat, gzip, System.currentTimeMillis() - start);
         }
     }
 
@@ -46,14 +86,8 @@ public class BorrowController {
     public Result<IPage<BorrowRecordDTO>> getMyBorrowList(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size) {
-        try {
-            logger.info("Fetching current user borrow list - page: {}, size: {}", page, size);
-            IPage<BorrowRecordDTO> result = borrowService.getCurrentUserBorrowList(page, size);
-            return Result.success(result);
-        } catch (Exception e) {
-            logger.error("Failed to fetch current user borrow list", e);
-            return Result.error(500, "获取借阅列表失败: " + e.getMessage());
-        }
+        logger.info("Fetching current user borrow list - page: {}, size: {}", page, size);
+        return Result.success(borrowService.getCurrentUserBorrowList(page, size));
     }
 
     @GetMapping("/history")
@@ -61,76 +95,88 @@ public class BorrowController {
     public Result<IPage<BorrowRecordDTO>> getBorrowHistory(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Long userId = null;
-        try {
-            // 获取当前登录用户的ID
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !(authentication.getPrincipal() instanceof Long)) {
-                return Result.error(401, "认证失败");
-            }
-            userId = (Long) authentication.getPrincipal();
-
-            logger.info("Fetching borrow history for user - userId: {}", userId);
-            IPage<BorrowRecordDTO> result = borrowService.getUserBorrowHistoryWithBook(userId, page, size);
-            return Result.success(result);
-        } catch (Exception e) {
-            logger.error("Failed to fetch borrow history - userId: {}", userId, e);
-            return Result.error(500, "获取借阅历史失败: " + e.getMessage());
-        }
+        Long userId = currentUserId();
+        logger.info("Fetching borrow history for user - userId: {}", userId);
+        return Result.success(borrowService.getUserBorrowHistoryWithBook(userId, page, size));
+    }
+
+    @GetMapping(value = "/history", params = "after")
+    @Operation(summary = "游标分页获取借阅历史")
+    public Result<CursorPage<BorrowRecordDTO>> getBorrowHistoryByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        Long userId = currentUserId();
+        logger.info("Fetching borrow history by cursor - userId: {}", userId);
+        return Result.success(borrowService.getUserBorrowHistoryAfter(userId, after, size, withTotal));
     }
 
     @PostMapping("/{bookId}")
     @Operation(summary = "借阅图书")
     public Result<BorrowRecord> borrowBook(@PathVariable Long bookId) {
-        try {
-            // 获取当前登录用户的ID
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !(authentication.getPrincipal() instanceof Long)) {
-                return Result.error(401, "认证失败");
-            }
-            Long userId = (Long) authentication.getPrincipal();
-
-            logger.info("User {} borrowing book - bookId: {}", userId, bookId);
-            BorrowRecord record = borrowService.borrowBook(userId, bookId);
-            return Result.success("借阅成功", record);
-        } catch (RuntimeException e) {
-            logger.error("Failed to borrow book - bookId: {}", bookId, e);
-            return Result.error(400, e.getMessage());
-        } catch (Exception e) {
-            logger.error("Failed to borrow book - bookId: {}", bookId, e);
-            return Result.error(500, "借阅失败: " + e.getMessage());
-        }
+        Long userId = currentUserId();
+        logger.info("User {} borrowing book - bookId: {}", userId, bookId);
+        return Result.success("借阅成功", borrowService.borrowBook(userId, bookId));
     }
 
     @PutMapping("/return/{recordId}")
     @Operation(summary = "归还图书")
     public Result<BorrowRecord> returnBook(@PathVariable Long recordId) {
-        try {
-            logger.info("Returning book - recordId: {}", recordId);
-            BorrowRecord record = borrowService.returnBook(recordId);
-            return Result.success("归还成功", record);
-        } catch (RuntimeException e) {
-            logger.error("Failed to return book - recordId: {}", recordId, e);
-            return Result.error(400, e.getMessage());
-        } catch (Exception e) {
-            logger.error("Failed to return book - recordId: {}", recordId, e);
-            return Result.error(500, "归还失败: " + e.getMessage());
-        }
+        logger.info("Returning book - recordId: {}", recordId);
+        return Result.success("归还成功", borrowService.returnBook(recordId));
     }
 
     @PutMapping("/renew/{recordId}")
     @Operation(summary = "续借图书")
     public Result<BorrowRecord> renewBook(@PathVariable Long recordId) {
-        try {
-            logger.info("Renewing book - recordId: {}", recordId);
-            BorrowRecord record = borrowService.renewBook(recordId);
-            return Result.success("续借成功", record);
-        } catch (RuntimeException e) {
-            logger.error("Failed to renew book - recordId: {}", recordId, e);
-            return Result.error(400, e.getMessage());
-        } catch (Exception e) {
-            logger.error("Failed to renew book - recordId: {}", recordId, e);
-            return Result.error(500, "续借失败: " + e.getMessage());
+        logger.info("Renewing book - recordId: {}", recordId);
+        return Result.success("续借成功", borrowService.renewBook(recordId));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "批量借阅图书", description = "ids 为图书ID列表，逐条返回结果；管理员可通过 userId 为读者代借")
+    public Result<BatchBorrowResult> borrowBooks(@RequestBody BatchBorrowRequest request) {
+        Long userId = currentUserId();
+        if (request.getUserId() != null && !request.getUserId().equals(userId)) {
+            boolean admin = SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .anyMatch("ROLE_ADMIN"::equals);
+            if (!admin) {
+                throw new BusinessException(ErrorCode.FORBIDDEN, "无权为其他用户借阅");
+            }
+            userId = request.getUserId();
         }
+
+        logger.info("Batch borrowing books - userId: {}, count: {}", userId, sizeOf(request));
+        return Result.success(borrowService.borrowBooks(userId, request.getIds()));
+    }
+
+    @PutMapping("/return/batch")
+    @Operation(summary = "批量归还图书", description = "ids 为借阅记录ID列表，逐条返回结果")
+    public Result<BatchBorrowResult> returnBooks(@RequestBody BatchBorrowRequest request) {
+        logger.info("Batch returning books - count: {}", sizeOf(request));
+        return Result.success(borrowService.returnBooks(request.getIds()));
+    }
+
+    @PutMapping("/renew/batch")
+    @Operation(summary = "批量续借图书", description = "ids 为借阅记录ID列表，逐条返回结果")
+    public Result<BatchBorrowResult> renewBooks(@RequestBody BatchBorrowRequest request) {
+        logger.info("Batch renewing books - count: {}", sizeOf(request));
+        return Result.success(borrowService.renewBooks(request.getIds()));
+    }
+
+    /**
+     * 当前登录用户的ID
+     */
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Long userId)) {
+            throw ErrorCode.UNAUTHORIZED.exception();
+        }
+        return userId;
+    }
+
+    private static int sizeOf(BatchBorrowRequest request) {
+        return request.getIds() != null ? request.getIds().size() : 0;
     }
 }
@@ -0,0 +1,66 @@
+package com.library.controller;
+
+import com.library.common.Result;
+import com.library.dto.CategoryStats;
+import com.library.entity.BookCategory;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
+import com.library.service.CategoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categories")
+@Tag(name = "图书分类", description = "图书分类和分类馆藏统计接口")
+public class CategoryController {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @GetMapping
+    @Operation(summary = "获取全部分类")
+    public Result<List<BookCategory>> listCategories() {
+        return Result.success(categoryService.listCategories());
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "分类馆藏统计", description = "各分类的图书种数、总册数、可借册数和借出册数，由内存统计直接返回")
+    public Result<List<CategoryStats>> getCategoryStats() {
+        return Result.success(categoryService.getCategoryStats());
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "添加分类")
+    public Result<BookCategory> addCategory(@RequestBody BookCategory category) {
+        if (category.getCategoryName() == null || category.getCategoryName().trim().isEmpty()) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "分类名称不能为空");
+        }
+        category.setId(null);
+        return Result.success("添加成功", categoryService.addCategory(category));
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "修改分类")
+    public Result<BookCategory> updateCategory(@PathVariable Long id, @RequestBody BookCategory category) {
+        if (category.getCategoryName() != null && category.getCategoryName().trim().isEmpty()) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "分类名称不能为空");
+        }
+        category.setId(id);
+        return Result.success("修改成功", categoryService.updateCategory(category));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "删除分类", description = "分类下仍有图书时拒绝删除")
+    public Result<Void> deleteCategory(@PathVariable Long id) {
+        categoryService.deleteCategory(id);
+        return Result.success("删除成功", null);
+    }
+}
@@ -25,13 +25,7 @@ public class DashboardController {
     @GetMapping
     @Operation(summary = "获取仪表盘数据")
     public Result<DashboardResponse> getDashboardData() {
-        try {
-            logger.info("Fetching dashboard data");
-            DashboardResponse data = dashboardService.getDashboardData();
-            return Result.success(data);
-        } catch (Exception e) {
-            logger.error("Failed to fetch dashboard data", e);
-            return Result.error(500, "获取仪表盘数据失败: " + e.getMessage());
-        }
+        logger.info("Fetching dashboard data");
+        return Result.success(dashboardService.getDashboardData());
     }
 }
@@ -0,0 +1,38 @@
+package com.library.controller;
+
+import com.library.common.Result;
+import com.library.inventory.HotInventory;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/inventory/hot")
+@Tag(name = "热门库存", description = "管理员标记热门图书，借阅改由内存计数放行并批量落库")
+public class InventoryController {
+
+    @Autowired
+    private HotInventory hotInventory;
+
+    @GetMapping
+    @Operation(summary = "查看热门图书", description = "返回图书ID到内存中的可借数")
+    public Result<Map<Long, Long>> list() {
+        return Result.success(hotInventory.snapshot());
+    }
+
+    @PutMapping("/{bookId}")
+    @Operation(summary = "标记热门图书", description = "从数据库加载当前可借数，返回加载后的计数")
+    public Result<Long> enable(@PathVariable Long bookId) {
+        return Result.success("已标记为热门图书", hotInventory.enable(bookId));
+    }
+
+    @DeleteMapping("/{bookId}")
+    @Operation(summary = "取消热门标记")
+    public Result<Void> disable(@PathVariable Long bookId) {
+        hotInventory.disable(bookId);
+        return Result.success("已取消热门标记", null);
+    }
+}
@@ -0,0 +1,34 @@
+package com.library.controller;
+
+import com.library.common.Result;
+import com.library.entity.User;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
+import com.library.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@Tag(name = "用户管理", description = "管理员用户管理接口")
+public class UserController {
+
+    @Autowired
+    private UserService userService;
+
+    @PutMapping("/{id}/status")
+    @Operation(summary = "启用或禁用用户", description = "status=0 禁用并吊销该用户已签发的全部令牌，status=1 启用")
+    public Result<Void> updateStatus(@PathVariable Long id, @RequestParam Integer status) {
+        if (status != 0 && status != 1) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "状态只能为 0 或 1");
+        }
+        User user = userService.getById(id);
+        if (user == null) {
+            throw ErrorCode.USER_NOT_FOUND.exception();
+        }
+        userService.updateStatus(user, status);
+        return Result.success(status == 0 ? "用户已禁用" : "用户已启用", null);
+    }
+}
@@ -0,0 +1,22 @@
+package com.library.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量借阅/归还/续借请求
+ */
+@Data
+public class BatchBorrowRequest {
+
+    /**
+     * 借阅时为图书ID，归还和续借时为借阅记录ID
+     */
+    private List<Long> ids;
+
+    /**
+     * 代借读者ID，仅管理员在借阅时可指定，为空时为当前用户
+     */
+    private Long userId;
+}
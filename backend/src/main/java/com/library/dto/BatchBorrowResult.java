@@ -0,0 +1,40 @@
+package com.library.dto;
+
+import com.library.entity.BorrowRecord;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量操作结果，items 与请求中的 ID 顺序一致（重复 ID 只出现一次）
+ */
+@Data
+public class BatchBorrowResult {
+
+    private int succeeded;
+    private int failed;
+    private List<Item> items = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private boolean success;
+        private String message;
+        private BorrowRecord record;
+    }
+
+    public void success(Long id, BorrowRecord record) {
+        items.add(new Item(id, true, null, record));
+        succeeded++;
+    }
+
+    public void failure(Long id, String message) {
+        items.add(new Item(id, false, message, null));
+        failed++;
+    }
+}
@@ -0,0 +1,16 @@
+package com.library.dto;
+
+import lombok.Data;
+
+/**
+ * 单个分类的馆藏统计，borrowedCopies 为总册数减可借册数
+ */
+@Data
+public class CategoryStats {
+    private Long categoryId;
+    private String categoryName;
+    private Long titles;
+    private Long totalCopies;
+    private Long availableCopies;
+    private Long borrowedCopies;
+}
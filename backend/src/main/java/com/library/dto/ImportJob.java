@@ -0,0 +1,58 @@
+package com.library.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 图书批量导入任务状态，由导入线程更新、状态接口读取
+ */
+@Data
+public class ImportJob {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * 最多保留的行错误条数
+     */
+    public static final int MAX_ERRORS = 100;
+
+    private String jobId;
+    private String fileName;
+    private String format;
+    private volatile Status status = Status.PENDING;
+
+    /**
+     * 已读取的数据行数（不含表头）
+     */
+    private volatile long processedRows;
+
+    /**
+     * 写入（新增或按 ISBN 更新）的行数
+     */
+    private volatile long upsertedRows;
+
+    /**
+     * 同一批次内 ISBN 重复、被后一行覆盖的行数
+     */
+    private volatile long duplicateRows;
+
+    private volatile long failedRows;
+
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+
+    private volatile String message;
+    private LocalDateTime createTime;
+    private volatile LocalDateTime finishTime;
+
+    public void addError(String error) {
+        failedRows++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+}
@@ -5,13 +5,20 @@ import lombok.Data;
 @Data
 public class LoginResponse {
     private String token;
+    private String refreshToken;
+    /**
+     * 访问令牌有效期（毫秒），到期前用 refreshToken 调用 /api/auth/refresh 换取新令牌
+     */
+    private Long expiresIn;
     private Long id;
     private String username;
     private String realName;
     private String role;
 
-    public LoginResponse(String token, com.library.entity.User user) {
+    public LoginResponse(String token, String refreshToken, Long expiresIn, com.library.entity.User user) {
         this.token = token;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
         this.id = user.getId();
         this.username = user.getUsername();
         this.realName = user.getRealName();
@@ -0,0 +1,9 @@
+package com.library.dto;
+
+import lombok.Data;
+
+@Data
+public class StatusCount {
+    private String status;
+    private Long total;
+}
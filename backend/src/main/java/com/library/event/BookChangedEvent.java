@@ -0,0 +1,31 @@
+package com.library.event;
+
+import com.library.entity.Book;
+import lombok.Value;
+
+/**
+ * 图书变更事件
+ * 新增、修改、删除图书后发布，删除事件携带删除前的图书数据；
+ * 修改事件的 book 只含请求中的字段，previous 为修改前的整行，监听方据此计算增量
+ */
+@Value
+public class BookChangedEvent {
+
+    public enum Type {
+        ADDED, UPDATED, DELETED
+    }
+
+    Type type;
+    Book book;
+    Book previous;
+
+    public BookChangedEvent(Type type, Book book) {
+        this(type, book, null);
+    }
+
+    public BookChangedEvent(Type type, Book book, Book previous) {
+        this.type = type;
+        this.book = book;
+        this.previous = previous;
+    }
+}
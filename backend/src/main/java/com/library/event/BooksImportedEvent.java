@@ -0,0 +1,12 @@
+package com.library.event;
+
+import lombok.Value;
+
+/**
+ * 图书批量导入完成事件，导入绕过了单本图书事件，监听方需整体刷新
+ */
+@Value
+public class BooksImportedEvent {
+    String jobId;
+    long upsertedRows;
+}
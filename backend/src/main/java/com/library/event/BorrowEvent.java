@@ -0,0 +1,19 @@
+package com.library.event;
+
+import com.library.entity.BorrowRecord;
+import lombok.Value;
+
+/**
+ * 借阅事件
+ * 借阅、归还、续借成功后发布，携带变更后的借阅记录
+ */
+@Value
+public class BorrowEvent {
+
+    public enum Type {
+        BORROWED, RETURNED, RENEWED
+    }
+
+    Type type;
+    BorrowRecord record;
+}
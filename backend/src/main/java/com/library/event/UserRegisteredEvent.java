@@ -0,0 +1,12 @@
+package com.library.event;
+
+import com.library.entity.User;
+import lombok.Value;
+
+/**
+ * 用户注册事件
+ */
+@Value
+public class UserRegisteredEvent {
+    User user;
+}
@@ -0,0 +1,20 @@
+package com.library.exception;
+
+/**
+ * 业务规则不满足时抛出的异常，如库存不足、重复借阅
+ * 这类结果是正常业务分支而非故障：不填充堆栈、不记录 suppressed，由 GlobalExceptionHandler 按错误码返回。
+ * 使用默认消息时优先 {@link ErrorCode#exception()}，不产生任何分配。
+ */
+public class BusinessException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    public BusinessException(ErrorCode errorCode, String message) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
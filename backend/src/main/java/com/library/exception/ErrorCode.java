@@ -0,0 +1,67 @@
+package com.library.exception;
+
+/**
+ * 业务错误码，status 同时作为 HTTP 状态码和 Result.code
+ */
+public enum ErrorCode {
+
+    BAD_REQUEST(400, "请求参数错误"),
+    UNAUTHORIZED(401, "认证失败"),
+    FORBIDDEN(403, "无权访问"),
+    TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后再试"),
+    INTERNAL_ERROR(500, "系统内部错误"),
+
+    USER_NOT_FOUND(400, "用户不存在"),
+    PASSWORD_INCORRECT(400, "密码错误"),
+    USER_DISABLED(403, "账户已被禁用"),
+    USERNAME_EXISTS(400, "用户名已存在"),
+    LOGIN_BUSY(503, "登录繁忙，请稍后再试"),
+    TOKEN_INVALID(401, "登录已失效，请重新登录"),
+    USER_SAVE_FAILED(500, "保存用户失败"),
+    USER_QUERY_FAILED(500, "查询用户失败"),
+
+    BOOK_NOT_FOUND(404, "图书不存在"),
+    BOOK_OUT_OF_STOCK(400, "图书库存不足"),
+    BOOK_ALREADY_BORROWED(400, "该图书已在借阅中"),
+    BORROW_RECORD_NOT_FOUND(404, "借阅记录不存在"),
+    BOOK_ALREADY_RETURNED(400, "该图书已归还"),
+    RENEW_LIMIT_REACHED(400, "续借次数已达上限"),
+    RENEW_TOO_LATE(400, "逾期时间过长，请先归还"),
+    BORROW_BUSY(503, "借阅人数过多，请稍后再试"),
+    INVENTORY_CONFLICT(409, "库存数据异常，无法归还，请联系管理员"),
+
+    CATEGORY_NOT_FOUND(404, "分类不存在"),
+    CATEGORY_NAME_EXISTS(400, "分类名称已存在"),
+    CATEGORY_IN_USE(400, "分类下仍有图书，无法删除"),
+
+    IMPORT_JOB_NOT_FOUND(404, "导入任务不存在"),
+    IMPORT_QUEUE_FULL(429, "导入任务过多，请稍后再试"),
+    IMPORT_FILE_SAVE_FAILED(500, "保存导入文件失败");
+
+    private final int status;
+    private final String message;
+
+    // 默认消息的异常不带堆栈且不可变，每个错误码共用一个实例
+    private final BusinessException exception;
+
+    ErrorCode(int status, String message) {
+        this.status = status;
+        this.message = message;
+        this.exception = new BusinessException(this, message);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * 返回该错误码的共享异常实例，用于 throw ErrorCode.XXX.exception()
+     */
+    public BusinessException exception() {
+        return exception;
+    }
+}
@@ -4,6 +4,8 @@ import com.library.common.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -17,13 +19,32 @@ public class GlobalExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
     /**
-     * 处理运行时异常
+     * 处理业务异常，按错误码返回对应的 HTTP 状态
+     */
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<Result<Void>> handleBusinessException(BusinessException e) {
+        ErrorCode code = e.getErrorCode();
+        logger.debug("业务异常: {} - {}", code, e.getMessage());
+        return ResponseEntity.status(code.getStatus()).body(Result.error(code.getStatus(), e.getMessage()));
+    }
+
+    /**
+     * 处理方法级权限不足（@PreAuthorize）
+     */
+    @ExceptionHandler(AccessDeniedException.class)
+    @ResponseStatus(HttpStatus.FORBIDDEN)
+    public Result<Void> handleAccessDeniedException(AccessDeniedException e) {
+        return Result.error(403, ErrorCode.FORBIDDEN.getMessage());
+    }
+
+    /**
+     * 处理运行时异常，原始消息可能含 SQL 或驱动信息，只记日志不返回给客户端
      */
     @ExceptionHandler(RuntimeException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Result<Void> handleRuntimeException(RuntimeException e) {
         logger.error("运行时异常: {}", e.getMessage(), e);
-        return Result.error(500, e.getMessage());
+        return Result.error(500, ErrorCode.INTERNAL_ERROR.getMessage());
     }
 
     /**
@@ -33,7 +54,7 @@ public class GlobalExceptionHandler {
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Result<Void> handleException(Exception e) {
         logger.error("系统异常: {}", e.getMessage(), e);
-        return Result.error(500, "系统错误: " + e.getMessage());
+        return Result.error(500, ErrorCode.INTERNAL_ERROR.getMessage());
     }
 
     /**
@@ -42,7 +63,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Result<Void> handleIllegalArgumentException(IllegalArgumentException e) {
-        logger.error("非法参数异常: {}", e.getMessage(), e);
+        logger.warn("非法参数异常: {}", e.getMessage());
         return Result.error(400, e.getMessage());
     }
 
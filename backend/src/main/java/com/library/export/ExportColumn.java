@@ -0,0 +1,9 @@
+package com.library.export;
+
+import java.util.function.Function;
+
+/**
+ * 导出列：表头（NDJSON 中为字段名）和取值函数
+ */
+public record ExportColumn<T>(String name, Function<T, Object> getter) {
+}
@@ -0,0 +1,45 @@
+package com.library.export;
+
+import com.library.dto.BorrowRecordDTO;
+import com.library.entity.Book;
+
+import java.util.List;
+
+/**
+ * 各导出接口的列定义，列名与导入格式一致，导出的图书文件可直接再导入
+ */
+public final class ExportColumns {
+
+    public static final List<ExportColumn<Book>> BOOKS = List.of(
+            new ExportColumn<>("id", Book::getId),
+            new ExportColumn<>("isbn", Book::getIsbn),
+            new ExportColumn<>("title", Book::getTitle),
+            new ExportColumn<>("author", Book::getAuthor),
+            new ExportColumn<>("publisher", Book::getPublisher),
+            new ExportColumn<>("publishDate", Book::getPublishDate),
+            new ExportColumn<>("categoryId", Book::getCategoryId),
+            new ExportColumn<>("price", Book::getPrice),
+            new ExportColumn<>("totalQuantity", Book::getTotalQuantity),
+            new ExportColumn<>("availableQuantity", Book::getAvailableQuantity),
+            new ExportColumn<>("location", Book::getLocation),
+            new ExportColumn<>("description", Book::getDescription),
+            new ExportColumn<>("coverUrl", Book::getCoverUrl),
+            new ExportColumn<>("createTime", Book::getCreateTime),
+            new ExportColumn<>("updateTime", Book::getUpdateTime));
+
+    public static final List<ExportColumn<BorrowRecordDTO>> BORROW_RECORDS = List.of(
+            new ExportColumn<>("id", BorrowRecordDTO::getId),
+            new ExportColumn<>("userId", BorrowRecordDTO::getUserId),
+            new ExportColumn<>("bookId", BorrowRecordDTO::getBookId),
+            new ExportColumn<>("bookIsbn", BorrowRecordDTO::getBookIsbn),
+            new ExportColumn<>("bookTitle", BorrowRecordDTO::getBookTitle),
+            new ExportColumn<>("bookAuthor", BorrowRecordDTO::getBookAuthor),
+            new ExportColumn<>("borrowDate", BorrowRecordDTO::getBorrowDate),
+            new ExportColumn<>("dueDate", BorrowRecordDTO::getDueDate),
+            new ExportColumn<>("returnDate", BorrowRecordDTO::getReturnDate),
+            new ExportColumn<>("status", BorrowRecordDTO::getStatus),
+            new ExportColumn<>("renewCount", BorrowRecordDTO::getRenewCount));
+
+    private ExportColumns() {
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.export;
+
+import java.util.Locale;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+
+    CSV("text/csv;charset=UTF-8", "csv"),
+
+    /**
+     * 每行一个 JSON 对象
+     */
+    NDJSON("application/x-ndjson;charset=UTF-8", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException 不支持的格式
+     */
+    public static ExportFormat of(String value) {
+        if (value == null || value.isEmpty()) {
+            return CSV;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "csv" -> CSV;
+            case "ndjson", "jsonl" -> NDJSON;
+            default -> throw new IllegalArgumentException("不支持的导出格式: " + value + "，仅支持 csv 和 ndjson");
+        };
+    }
+}
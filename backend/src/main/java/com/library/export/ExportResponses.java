@@ -0,0 +1,38 @@
+package com.library.export;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 设置导出下载的响应头并打开输出流
+ */
+public final class ExportResponses {
+
+    private ExportResponses() {
+    }
+
+    /**
+     * @param gzip 为 true 时输出 .gz 文件（application/gzip），而不是设置 Content-Encoding，下载后保持压缩
+     */
+    public static OutputStream open(HttpServletResponse response, String baseName, ExportFormat format, boolean gzip)
+            throws IOException {
+        String fileName = baseName + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE)
+                + "." + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName, StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        OutputStream out = response.getOutputStream();
+        return gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+    }
+}
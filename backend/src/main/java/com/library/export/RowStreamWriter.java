@@ -0,0 +1,112 @@
+package com.library.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 逐行把记录写到输出流，不缓存结果集；内存占用只与单行大小有关
+ */
+public final class RowStreamWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private RowStreamWriter() {
+    }
+
+    /**
+     * 写出全部记录，不关闭输出流
+     *
+     * @return 写出的行数
+     */
+    public static <T> long write(Iterable<T> rows, List<ExportColumn<T>> columns, ExportFormat format,
+                                 OutputStream out) throws IOException {
+        return format == ExportFormat.CSV ? writeCsv(rows, columns, out) : writeNdjson(rows, columns, out);
+    }
+
+    private static <T> long writeCsv(Iterable<T> rows, List<ExportColumn<T>> columns, OutputStream out)
+            throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        // BOM 让 Excel 按 UTF-8 打开中文
+        writer.write('\uFEFF');
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvField(writer, columns.get(i).name());
+        }
+        writer.write("\r\n");
+
+        long count = 0;
+        for (T row : rows) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = columns.get(i).getter().apply(row);
+                if (value != null) {
+                    writeCsvField(writer, value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString());
+                }
+            }
+            writer.write("\r\n");
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvField(BufferedWriter writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static <T> long writeNdjson(Iterable<T> rows, List<ExportColumn<T>> columns, OutputStream out)
+            throws IOException {
+        long count = 0;
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        // 输出流由调用方管理
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        for (T row : rows) {
+            generator.writeStartObject();
+            for (ExportColumn<T> column : columns) {
+                generator.writeFieldName(column.name());
+                Object value = column.getter().apply(row);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long l) {
+                    generator.writeNumber(l);
+                } else if (value instanceof Integer n) {
+                    generator.writeNumber(n);
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.close();
+        return count;
+    }
+}
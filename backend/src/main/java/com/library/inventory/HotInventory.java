@@ -0,0 +1,522 @@
+package com.library.inventory;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.library.entity.Book;
+import com.library.entity.BorrowRecord;
+import com.library.event.BorrowEvent;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
+import com.library.mapper.BookMapper;
+import com.library.mapper.BorrowRecordMapper;
+import com.library.service.BookService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 热门图书库存预占
+ * 新书上架等场景下大量读者同时借同一本书，逐个条件 UPDATE 会在 book 行锁上排队。
+ * 标记为热门的图书在内存中保存可借数，借阅请求用一次 CAS 立即放行或拒绝；
+ * 放行的预占由后台线程攒批，每本书一个事务内扣减一次库存并写入全部借阅记录，提交后请求才返回。
+ * <p>
+ * 数据库始终是准绳：请求只在落库成功后才得到借阅成功的响应，进程崩溃只会丢失尚未应答的预占；
+ * 计数在标记时从数据库加载，之后定期按数据库对账，吸收归还、管理员修改和其他节点的借阅。
+ * 条件 UPDATE 保证不会超借，计数偏高时多出的预占会逐条重试并按库存不足拒绝。
+ */
+@Component
+public class HotInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotInventory.class);
+
+    private static final List<String> OPEN_STATUSES = List.of("BORROWED", "OVERDUE");
+
+    private static final int LOAN_DAYS = 30;
+
+    private final BookService bookService;
+
+    private final BookMapper bookMapper;
+
+    private final BorrowRecordMapper borrowRecordMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    // 预占总数受热门图书库存限制，队列无需另设上限
+    private final ConcurrentLinkedQueue<Reservation> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final List<Long> initialBookIds;
+
+    private final int flushSize;
+
+    private final long flushIntervalNanos;
+
+    private final long reconcileIntervalNanos;
+
+    private final long timeoutMillis;
+
+    private final Counter admitted;
+    private final Counter rejected;
+    private final Counter persisted;
+    private final Counter failed;
+
+    private volatile boolean running;
+
+    private volatile Thread worker;
+
+    public HotInventory(BookService bookService,
+                        BookMapper bookMapper,
+                        BorrowRecordMapper borrowRecordMapper,
+                        ApplicationEventPublisher eventPublisher,
+                        TransactionTemplate transactionTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${library.borrow.hot.book-ids:}") List<Long> initialBookIds,
+                        @Value("${library.borrow.hot.flush-size:200}") int flushSize,
+                        @Value("${library.borrow.hot.flush-interval:5}") long flushIntervalMillis,
+                        @Value("${library.borrow.hot.reconcile-interval:1000}") long reconcileIntervalMillis,
+                        @Value("${library.borrow.hot.timeout:5000}") long timeoutMillis) {
+        this.bookService = bookService;
+        this.bookMapper = bookMapper;
+        this.borrowRecordMapper = borrowRecordMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.initialBookIds = initialBookIds;
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.reconcileIntervalNanos = TimeUnit.MILLISECONDS.toNanos(reconcileIntervalMillis);
+        this.timeoutMillis = timeoutMillis;
+        this.admitted = Counter.builder("library.inventory.hot.borrows").tag("result", "admitted").register(meterRegistry);
+        this.rejected = Counter.builder("library.inventory.hot.borrows").tag("result", "rejected").register(meterRegistry);
+        this.persisted = Counter.builder("library.inventory.hot.borrows").tag("result", "persisted").register(meterRegistry);
+        this.failed = Counter.builder("library.inventory.hot.borrows").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("library.inventory.hot.pending", size, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Long bookId : initialBookIds) {
+            try {
+                enable(bookId);
+            } catch (BusinessException e) {
+                logger.warn("Skipping configured hot book - bookId: {}, reason: {}", bookId, e.getMessage());
+            }
+        }
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "hot-inventory-writer");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        // 停机前把已放行的预占写完，等待中的请求都能得到结果
+        while (flush() > 0) {
+            // 继续
+        }
+    }
+
+    /**
+     * 把图书标记为热门，从数据库加载当前可借数
+     *
+     * @return 当前内存中的可借数
+     */
+    public long enable(Long bookId) {
+        Slot slot = slots.get(bookId);
+        if (slot == null) {
+            Book book = bookMapper.selectById(bookId);
+            if (book == null) {
+                throw ErrorCode.BOOK_NOT_FOUND.exception();
+            }
+            int available = book.getAvailableQuantity() != null ? book.getAvailableQuantity() : 0;
+            Slot created = new Slot(bookId, available);
+            slot = slots.putIfAbsent(bookId, created);
+            if (slot == null) {
+                slot = created;
+                logger.info("Hot inventory enabled - bookId: {}, available: {}", bookId, available);
+            }
+        }
+        return slot.available.get();
+    }
+
+    /**
+     * 取消热门标记，之后的借阅回到逐条条件更新；已放行的预占照常落库
+     */
+    public void disable(Long bookId) {
+        if (slots.remove(bookId) != null) {
+            logger.info("Hot inventory disabled - bookId: {}", bookId);
+        }
+    }
+
+    /**
+     * @return 热门图书ID到内存可借数
+     */
+    public Map<Long, Long> snapshot() {
+        return slots.values().stream()
+                .collect(Collectors.toMap(s -> s.bookId, s -> s.available.get()));
+    }
+
+    /**
+     * 借阅热门图书：内存计数不足时立即拒绝，否则等预占落库后返回借阅记录
+     *
+     * @return 借阅记录；该书不是热门图书时返回 null，由调用方走常规流程
+     */
+    public BorrowRecord borrow(Long userId, Long bookId) {
+        Reservation reservation = reserve(userId, bookId);
+        if (reservation == null) {
+            return null;
+        }
+        try {
+            return reservation.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (TimeoutException e) {
+            if (reservation.cancel()) {
+                logger.warn("Hot borrow timed out before persisting - userId: {}, bookId: {}", userId, bookId);
+                throw ErrorCode.BORROW_BUSY.exception();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (reservation.cancel()) {
+                throw ErrorCode.BORROW_BUSY.exception();
+            }
+        }
+        // 预占已在写入中，取消不了，等待事务结果
+        try {
+            return reservation.result.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    Reservation reserve(Long userId, Long bookId) {
+        Slot slot = slots.get(bookId);
+        if (slot == null) {
+            return null;
+        }
+        // 同一读者的预占尚未落库时，数据库中查不到借阅记录，在内存中去重
+        if (!slot.pendingUsers.add(userId)) {
+            throw ErrorCode.BOOK_ALREADY_BORROWED.exception();
+        }
+        if (!slot.tryTake()) {
+            slot.pendingUsers.remove(userId);
+            rejected.increment();
+            throw ErrorCode.BOOK_OUT_OF_STOCK.exception();
+        }
+        admitted.increment();
+        Reservation reservation = new Reservation(slot, userId);
+        queue.offer(reservation);
+        int pending = size.incrementAndGet();
+        Thread thread = worker;
+        if (thread != null && (pending == 1 || pending >= flushSize)) {
+            LockSupport.unpark(thread);
+        }
+        return reservation;
+    }
+
+    private void drainLoop() {
+        long batchStart = 0;
+        long nextReconcile = System.nanoTime() + reconcileIntervalNanos;
+        while (running) {
+            long now = System.nanoTime();
+            try {
+                if (now - nextReconcile >= 0) {
+                    nextReconcile = now + reconcileIntervalNanos;
+                    reconcile();
+                }
+                int pending = size.get();
+                if (pending == 0) {
+                    batchStart = 0;
+                    LockSupport.parkNanos(this, nextReconcile - now);
+                    continue;
+                }
+                // 第一条预占到达后最多再等 flush-interval 攒批
+                if (batchStart == 0) {
+                    batchStart = now;
+                }
+                if (pending < flushSize && now - batchStart < flushIntervalNanos) {
+                    LockSupport.parkNanos(this, flushIntervalNanos - (now - batchStart));
+                    continue;
+                }
+                flush();
+            } catch (RuntimeException e) {
+                logger.error("Hot inventory flush failed", e);
+            }
+            batchStart = 0;
+        }
+    }
+
+    /**
+     * 取出最多 flush-size 条预占，按图书分组落库
+     *
+     * @return 本批取出的条数
+     */
+    int flush() {
+        Map<Slot, List<Reservation>> groups = new LinkedHashMap<>();
+        int drained = 0;
+        Reservation reservation;
+        while (drained < flushSize && (reservation = queue.poll()) != null) {
+            size.decrementAndGet();
+            drained++;
+            if (reservation.take()) {
+                groups.computeIfAbsent(reservation.slot, k -> new ArrayList<>()).add(reservation);
+            } else {
+                release(reservation);
+            }
+        }
+        groups.forEach(this::persist);
+        return drained;
+    }
+
+    private void persist(Slot slot, List<Reservation> group) {
+        Map<Reservation, BorrowRecord> created;
+        try {
+            created = transactionTemplate.execute(status -> insert(slot.bookId, group));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to persist {} hot borrows - bookId: {}, error: {}", group.size(), slot.bookId, e.getMessage());
+            group.forEach(r -> fail(r, e));
+            return;
+        }
+        if (created == null) {
+            // 数据库库存少于内存计数（管理员改了库存或其他节点借出），逐条重试后按数据库对账
+            logger.info("Hot inventory ahead of database, retrying individually - bookId: {}, reservations: {}",
+                    slot.bookId, group.size());
+            for (Reservation r : group) {
+                persistSingle(r);
+            }
+            reconcile(List.of(slot));
+            return;
+        }
+        complete(slot, created);
+    }
+
+    private void persistSingle(Reservation reservation) {
+        Map<Reservation, BorrowRecord> created;
+        try {
+            created = transactionTemplate.execute(status -> insert(reservation.slot.bookId, List.of(reservation)));
+        } catch (RuntimeException e) {
+            fail(reservation, e);
+            return;
+        }
+        if (created == null) {
+            fail(reservation, ErrorCode.BOOK_OUT_OF_STOCK.exception());
+        } else {
+            complete(reservation.slot, created);
+        }
+    }
+
+    /**
+     * 在事务内一次扣减整组库存并写入借阅记录，需在事务内调用
+     * 扣减锁住 book 行后再查重，与同一本书的其他借阅串行，不会漏掉刚提交的记录
+     *
+     * @return 预占到借阅记录，重复借阅的值为 null；库存不足时返回 null 且不做任何修改
+     */
+    private Map<Reservation, BorrowRecord> insert(Long bookId, List<Reservation> group) {
+        if (!bookService.decreaseAvailableQuantity(bookId, group.size())) {
+            return null;
+        }
+        Set<Long> duplicates = borrowRecordMapper.selectList(new LambdaQueryWrapper<BorrowRecord>()
+                        .select(BorrowRecord::getUserId)
+                        .eq(BorrowRecord::getBookId, bookId)
+                        .in(BorrowRecord::getUserId, group.stream().map(r -> r.userId).toList())
+                        .in(BorrowRecord::getStatus, OPEN_STATUSES))
+                .stream()
+                .map(BorrowRecord::getUserId)
+                .collect(Collectors.toSet());
+        if (!duplicates.isEmpty()) {
+            bookService.updateAvailableQuantity(bookId, duplicates.size());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Reservation, BorrowRecord> created = new LinkedHashMap<>();
+        for (Reservation reservation : group) {
+            if (duplicates.contains(reservation.userId)) {
+                created.put(reservation, null);
+                continue;
+            }
+            BorrowRecord record = new BorrowRecord();
+            record.setUserId(reservation.userId);
+            record.setBookId(bookId);
+            record.setBorrowDate(now);
+            record.setDueDate(now.plusDays(LOAN_DAYS));
+            record.setStatus("BORROWED");
+            record.setRenewCount(0);
+            borrowRecordMapper.insert(record);
+            eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.BORROWED, record));
+            created.put(reservation, record);
+        }
+        return created;
+    }
+
+    private void complete(Slot slot, Map<Reservation, BorrowRecord> created) {
+        created.forEach((reservation, record) -> {
+            if (record == null) {
+                fail(reservation, ErrorCode.BOOK_ALREADY_BORROWED.exception());
+                return;
+            }
+            slot.expectedAvailable--;
+            slot.pendingUsers.remove(reservation.userId);
+            persisted.increment();
+            reservation.result.complete(record);
+        });
+    }
+
+    private void fail(Reservation reservation, RuntimeException cause) {
+        release(reservation);
+        failed.increment();
+        reservation.result.completeExceptionally(cause);
+    }
+
+    /**
+     * 未落库的预占归还内存计数
+     */
+    private static void release(Reservation reservation) {
+        reservation.slot.available.incrementAndGet();
+        reservation.slot.pendingUsers.remove(reservation.userId);
+    }
+
+    void reconcile() {
+        reconcile(List.copyOf(slots.values()));
+    }
+
+    /**
+     * 按数据库库存校正内存计数，只在写入线程调用
+     * 热门路径的扣减已同时计入两边，差值只来自其他写入（归还、管理员修改、常规借阅），直接累加到计数上，
+     * 不需要暂停正在进行的预占
+     */
+    private void reconcile(Collection<Slot> targets) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        Map<Long, Book> books = bookMapper.selectBatchIds(targets.stream().map(s -> s.bookId).toList()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        for (Slot slot : targets) {
+            Book book = books.get(slot.bookId);
+            if (book == null) {
+                slots.remove(slot.bookId, slot);
+                logger.warn("Hot book no longer exists, disabled - bookId: {}", slot.bookId);
+                continue;
+            }
+            long drift = book.getAvailableQuantity() - slot.expectedAvailable;
+            if (drift != 0) {
+                slot.available.addAndGet(drift);
+                slot.expectedAvailable = book.getAvailableQuantity();
+                logger.debug("Hot inventory reconciled - bookId: {}, drift: {}", slot.bookId, drift);
+            }
+        }
+    }
+
+    public int pending() {
+        return size.get();
+    }
+
+    /**
+     * 一本热门图书的内存库存
+     * available 加上未落库的预占数始终等于 expectedAvailable，即按本节点所知数据库中的可借数
+     */
+    static final class Slot {
+
+        private final Long bookId;
+
+        // 同一本书的请求都在这一个计数上 CAS，单次操作只有几纳秒，不会成为新的热点
+        private final AtomicLong available;
+
+        private final Set<Long> pendingUsers = ConcurrentHashMap.newKeySet();
+
+        // 只由写入线程读写
+        private long expectedAvailable;
+
+        Slot(Long bookId, int available) {
+            this.bookId = bookId;
+            this.available = new AtomicLong(available);
+            this.expectedAvailable = available;
+        }
+
+        boolean tryTake() {
+            long current;
+            do {
+                current = available.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+
+    static final class Reservation {
+
+        private static final int QUEUED = 0;
+        private static final int TAKEN = 1;
+        private static final int CANCELLED = 2;
+
+        private final Slot slot;
+
+        private final Long userId;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        final CompletableFuture<BorrowRecord> result = new CompletableFuture<>();
+
+        Reservation(Slot slot, Long userId) {
+            this.slot = slot;
+            this.userId = userId;
+        }
+
+        /**
+         * 写入线程取走预占，之后请求方不能再取消
+         */
+        boolean take() {
+            return state.compareAndSet(QUEUED, TAKEN);
+        }
+
+        /**
+         * 请求方等待超时时取消，成功后写入线程会跳过它
+         */
+        boolean cancel() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+    }
+}
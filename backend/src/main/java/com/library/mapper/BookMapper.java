@@ -1,9 +1,92 @@
 package com.library.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.library.dto.CategoryStats;
+import com.library.dto.DashboardResponse;
 import com.library.entity.Book;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.util.List;
 
 @Mapper
 public interface BookMapper extends BaseMapper<Book> {
+
+    /**
+     * 原子扣减一本库存，库存不足时不更新
+     *
+     * @return 受影响行数，0 表示图书不存在或库存不足
+     */
+    @Update("UPDATE book SET available_quantity = available_quantity - 1 " +
+            "WHERE id = #{bookId} AND available_quantity > 0 AND deleted = 0")
+    int decrementAvailableQuantity(@Param("bookId") Long bookId);
+
+    /**
+     * 原子调整库存，结果不会小于 0 也不会超过总数量
+     *
+     * @return 受影响行数，0 表示图书不存在或调整后越界
+     */
+    @Update("UPDATE book SET available_quantity = available_quantity + #{delta} " +
+            "WHERE id = #{bookId} AND deleted = 0 " +
+            "AND available_quantity + #{delta} >= 0 " +
+            "AND available_quantity + #{delta} <= total_quantity")
+    int adjustAvailableQuantity(@Param("bookId") Long bookId, @Param("delta") int delta);
+
+    /**
+     * 统计图书种数和可借总量，只返回 totalBooks 和 availableBooks
+     */
+    @Select("SELECT COUNT(*) AS total_books, COALESCE(SUM(available_quantity), 0) AS available_books " +
+            "FROM book WHERE deleted = 0")
+    DashboardResponse.DashboardStats selectInventoryStats();
+
+    /**
+     * 分类下是否仍有未删除的图书，走 idx_category_id 找到第一行即返回
+     */
+    @Select("SELECT EXISTS(SELECT 1 FROM book WHERE category_id = #{categoryId} AND deleted = 0)")
+    boolean existsByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * 按分类聚合图书种数和册数，只返回 categoryId、titles、totalCopies 和 availableCopies
+     */
+    @Select("SELECT category_id, COUNT(*) AS titles, COALESCE(SUM(total_quantity), 0) AS total_copies, " +
+            "COALESCE(SUM(available_quantity), 0) AS available_copies " +
+            "FROM book WHERE deleted = 0 GROUP BY category_id")
+    List<CategoryStats> selectCategoryStats();
+
+    @Select("<script>" +
+            "SELECT id FROM book WHERE deleted = 0 AND (" +
+            "<if test='query != null'>MATCH(title, author) AGAINST(#{query} IN BOOLEAN MODE)</if>" +
+            "<if test='query != null and isbn != null'> OR </if>" +
+            "<if test='isbn != null'>isbn LIKE CONCAT(#{isbn}, '%')</if>" +
+            ") ORDER BY " +
+            "<if test='isbn != null'>isbn = #{isbn} DESC, </if>" +
+            "<if test='query != null'>MATCH(title, author) AGAINST(#{query} IN BOOLEAN MODE) DESC, </if>" +
+            "id LIMIT #{offset}, #{limit}" +
+            "</script>")
+    List<Long> selectFulltextIds(@Param("query") String query, @Param("isbn") String isbn,
+                                 @Param("offset") long offset, @Param("limit") int limit);
+
+    @Select("<script>" +
+            "SELECT COUNT(*) FROM book WHERE deleted = 0 AND (" +
+            "<if test='query != null'>MATCH(title, author) AGAINST(#{query} IN BOOLEAN MODE)</if>" +
+            "<if test='query != null and isbn != null'> OR </if>" +
+            "<if test='isbn != null'>isbn LIKE CONCAT(#{isbn}, '%')</if>" +
+            ")" +
+            "</script>")
+    long countFulltext(@Param("query") String query, @Param("isbn") String isbn);
+
+    /**
+     * 按主键顺序流式读取全部图书，MySQL 驱动在 fetchSize 为 Integer.MIN_VALUE 时逐行返回
+     * 需在事务内消费
+     */
+    @Select("SELECT id, isbn, title, author, publisher, publish_date, category_id, price, total_quantity, " +
+            "available_quantity, location, description, cover_url, create_time, update_time " +
+            "FROM book WHERE deleted = 0 ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Book> streamAll();
 }
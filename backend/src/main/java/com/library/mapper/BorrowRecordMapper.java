@@ -4,10 +4,20 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.library.dto.BorrowRecordDTO;
+import com.library.dto.DashboardResponse;
+import com.library.dto.StatusCount;
 import com.library.entity.BorrowRecord;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface BorrowRecordMapper extends BaseMapper<BorrowRecord> {
@@ -18,9 +28,9 @@ public interface BorrowRecordMapper extends BaseMapper<BorrowRecord> {
             "LEFT JOIN book b ON br.book_id = b.id " +
             "WHERE br.deleted = 0 " +
             "AND br.user_id = #{userId} " +
-            "AND br.status = #{status} " +
+            "AND br.status IN ('BORROWED', 'OVERDUE') " +
             "ORDER BY br.borrow_date DESC")
-    IPage<BorrowRecordDTO> selectBorrowRecordsWithBook(Page<BorrowRecordDTO> page, @Param("userId") Long userId, @Param("status") String status);
+    IPage<BorrowRecordDTO> selectOpenBorrowRecordsWithBook(Page<BorrowRecordDTO> page, @Param("userId") Long userId);
 
     @Select("SELECT br.id, br.user_id, br.book_id, b.title as book_title, b.author as book_author, b.isbn as book_isbn, " +
             "br.borrow_date, br.due_date, br.return_date, br.status, br.renew_count " +
@@ -30,4 +40,76 @@ public interface BorrowRecordMapper extends BaseMapper<BorrowRecord> {
             "AND br.user_id = #{userId} " +
             "ORDER BY br.borrow_date DESC")
     IPage<BorrowRecordDTO> selectUserBorrowHistory(Page<BorrowRecordDTO> page, @Param("userId") Long userId);
+
+    @Select("<script>" +
+            "SELECT br.id, br.user_id, br.book_id, b.title as book_title, b.author as book_author, b.isbn as book_isbn, " +
+            "br.borrow_date, br.due_date, br.return_date, br.status, br.renew_count " +
+            "FROM borrow_record br " +
+            "LEFT JOIN book b ON br.book_id = b.id " +
+            "WHERE br.deleted = 0 " +
+            "AND br.user_id = #{userId} " +
+            "<if test='afterDate != null'>" +
+            "AND (br.borrow_date &lt; #{afterDate} OR (br.borrow_date = #{afterDate} AND br.id &lt; #{afterId})) " +
+            "</if>" +
+            "ORDER BY br.borrow_date DESC, br.id DESC " +
+            "LIMIT #{limit}" +
+            "</script>")
+    List<BorrowRecordDTO> selectUserBorrowHistoryAfter(@Param("userId") Long userId,
+                                                       @Param("afterDate") LocalDateTime afterDate,
+                                                       @Param("afterId") Long afterId,
+                                                       @Param("limit") int limit);
+
+    @Select("SELECT status, COUNT(*) AS total FROM borrow_record WHERE deleted = 0 GROUP BY status")
+    List<StatusCount> selectStatusCounts();
+
+    @Select("SELECT br.id, COALESCE(b.title, '未知图书') AS book_title, COALESCE(u.real_name, '未知用户') AS username, " +
+            "DATE_FORMAT(br.borrow_date, '%Y-%m-%d') AS borrow_date, br.status " +
+            "FROM borrow_record br " +
+            "LEFT JOIN book b ON br.book_id = b.id " +
+            "LEFT JOIN sys_user u ON br.user_id = u.id " +
+            "WHERE br.deleted = 0 " +
+            "ORDER BY br.borrow_date DESC, br.id DESC " +
+            "LIMIT #{limit}")
+    List<DashboardResponse.BorrowRecordDetail> selectRecentRecordDetails(@Param("limit") int limit);
+
+    /**
+     * 按主键顺序流式读取借阅记录（含图书信息），需在事务内消费
+     */
+    @Select("<script>" +
+            "SELECT br.id, br.user_id, br.book_id, b.title as book_title, b.author as book_author, b.isbn as book_isbn, " +
+            "br.borrow_date, br.due_date, br.return_date, br.status, br.renew_count " +
+            "FROM borrow_record br " +
+            "LEFT JOIN book b ON br.book_id = b.id " +
+            "WHERE br.deleted = 0 " +
+            "<if test='userId != null'>AND br.user_id = #{userId} </if>" +
+            "<if test='status != null and status != \"\"'>AND br.status = #{status} </if>" +
+            "ORDER BY br.id" +
+            "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<BorrowRecordDTO> streamBorrowRecords(@Param("userId") Long userId, @Param("status") String status);
+
+    /**
+     * 把已过应还日期的借阅中记录标记为逾期，单次最多更新 limit 行，走 (status, due_date) 索引
+     */
+    @Update("UPDATE borrow_record SET status = 'OVERDUE' " +
+            "WHERE status = 'BORROWED' AND due_date < #{now} AND deleted = 0 " +
+            "LIMIT #{limit}")
+    int markOverdue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 批量读取并锁定借阅记录，防止并发归还或续借同一记录
+     */
+    @Select("<script>" +
+            "SELECT * FROM borrow_record WHERE deleted = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "FOR UPDATE" +
+            "</script>")
+    List<BorrowRecord> selectByIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Update("<script>" +
+            "UPDATE borrow_record SET status = 'RETURNED', return_date = #{returnDate} " +
+            "WHERE deleted = 0 AND status IN ('BORROWED', 'OVERDUE') AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int markReturned(@Param("ids") Collection<Long> ids, @Param("returnDate") LocalDateTime returnDate);
 }
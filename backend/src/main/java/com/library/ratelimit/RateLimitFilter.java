@@ -0,0 +1,99 @@
+package com.library.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.common.Result;
+import com.library.exception.ErrorCode;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按路由策略限流，位于 JwtAuthenticationFilter 之后，USER 策略可以按已认证的用户 ID 计数
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiter rateLimiter;
+
+    private final RateLimitProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || rateLimiter.getRules().isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String ip = null;
+        for (RateLimiter.Rule rule : rateLimiter.getRules()) {
+            if (!rule.matches(request)) {
+                continue;
+            }
+            String key = rule.getKeyType() == RateLimitProperties.KeyType.USER ? userKey() : null;
+            if (key == null) {
+                if (ip == null) {
+                    ip = clientIp(request, properties.getForwardedHops());
+                }
+                key = "ip:" + ip;
+            }
+            long waitMillis = rateLimiter.tryAcquire(rule, key);
+            if (waitMillis > 0) {
+                logger.debug("Rate limited - policy: {}, key: {}, retryAfter: {}ms", rule.getName(), key, waitMillis);
+                reject(response, waitMillis);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String userKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof Long userId
+                ? "user:" + userId
+                : null;
+    }
+
+    /**
+     * forwardedHops 为 0 时取连接地址；否则从 X-Forwarded-For 右侧数第 hops 项，
+     * 只信任自己的代理追加的部分，客户端伪造的左侧内容不影响计数；审计日志用同一规则
+     */
+    public static String clientIp(HttpServletRequest request, int forwardedHops) {
+        String forwarded = forwardedHops > 0 ? request.getHeader("X-Forwarded-For") : null;
+        if (forwarded == null || forwarded.isEmpty()) {
+            return request.getRemoteAddr();
+        }
+        String[] parts = forwarded.split(",");
+        return parts[Math.max(0, parts.length - forwardedHops)].trim();
+    }
+
+    private void reject(HttpServletResponse response, long waitMillis) throws IOException {
+        ErrorCode code = ErrorCode.TOO_MANY_REQUESTS;
+        response.setStatus(code.getStatus());
+        response.setHeader("Retry-After", Long.toString((waitMillis + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Result.error(code.getStatus(), code.getMessage()));
+    }
+}
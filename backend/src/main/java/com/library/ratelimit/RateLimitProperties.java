@@ -0,0 +1,77 @@
+package com.library.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限流配置，按路由定义令牌桶策略
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "library.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 令牌桶状态放在 Redis，多节点共享配额；Redis 不可用时退回本地令牌桶
+     */
+    private boolean redisEnabled = false;
+
+    /**
+     * 每个策略本地最多保留的令牌桶数，超出后淘汰最近最少使用的桶
+     */
+    private long maxKeys = 100000;
+
+    /**
+     * 取客户端 IP 时信任的反向代理层数：0 为连接地址，1 为 X-Forwarded-For 的最后一项，依此类推
+     */
+    private int forwardedHops = 0;
+
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    public static class Policy {
+
+        private String name;
+
+        /**
+         * Ant 风格路径，如 /api/auth/login
+         */
+        private String path;
+
+        /**
+         * 限制的 HTTP 方法，为空时不区分
+         */
+        private List<String> methods = new ArrayList<>();
+
+        /**
+         * 只在请求带有该非空参数时生效，如 keyword
+         */
+        private String queryParam;
+
+        /**
+         * 按什么计数：IP 或 USER，USER 对未登录请求退化为按 IP
+         */
+        private KeyType key = KeyType.IP;
+
+        /**
+         * 桶容量，即允许的突发请求数
+         */
+        private int capacity = 10;
+
+        /**
+         * 每秒补充的令牌数，可以小于 1
+         */
+        private double refillPerSecond = 1;
+    }
+
+    public enum KeyType {
+        IP,
+        USER
+    }
+}
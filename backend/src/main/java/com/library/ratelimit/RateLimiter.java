@@ -0,0 +1,185 @@
+package com.library.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按策略维护令牌桶。本地桶放在 Caffeine 中，数量有上限，空闲到桶重新装满后自动淘汰（淘汰不丢状态）；
+ * 开启 Redis 时用 Lua 脚本在 Redis 上原子地执行同一算法，时间取 Redis 服务器时钟，避免节点间时钟偏差。
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private static final String KEY_PREFIX = "library:ratelimit:";
+
+    // 参数为微秒：ARGV[1] 补充间隔，ARGV[2] 桶容量时长；返回 0 放行，否则为需等待的微秒数
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME')\n"
+                    + "local now = tonumber(t[1]) * 1000000 + tonumber(t[2])\n"
+                    + "local tat = tonumber(redis.call('GET', KEYS[1]) or now)\n"
+                    + "if tat < now then tat = now end\n"
+                    + "local nxt = tat + tonumber(ARGV[1])\n"
+                    + "local wait = nxt - now - tonumber(ARGV[2])\n"
+                    + "if wait > 0 then return wait end\n"
+                    + "redis.call('SET', KEYS[1], string.format('%.0f', nxt), 'PX', math.max(1, math.ceil((nxt - now) / 1000)))\n"
+                    + "return 0",
+            Long.class);
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<Rule> rules;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private volatile boolean redisAvailable = true;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, ObjectProvider<StringRedisTemplate> redisTemplate,
+                       MeterRegistry meterRegistry) {
+        this(properties, properties.isRedisEnabled() ? redisTemplate.getIfAvailable() : null, meterRegistry);
+    }
+
+    public RateLimiter(RateLimitProperties properties, StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        List<Rule> compiled = new ArrayList<>();
+        for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+            compiled.add(new Rule(policy, properties.getMaxKeys(), meterRegistry));
+        }
+        this.rules = Collections.unmodifiableList(compiled);
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * 为 key 从该策略的桶中取一个令牌
+     *
+     * @return 0 表示放行，否则为建议的重试等待毫秒数
+     */
+    public long tryAcquire(Rule rule, String key) {
+        long waitNanos = redisTemplate != null ? tryAcquireShared(rule, key) : -1;
+        if (waitNanos < 0) {
+            long now = System.nanoTime();
+            waitNanos = rule.buckets.get(key, k -> new TokenBucket(now))
+                    .tryAcquire(now, rule.intervalNanos, rule.burstNanos);
+        }
+        if (waitNanos == 0) {
+            return 0;
+        }
+        rule.rejected.increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+
+    /**
+     * @return 等待纳秒数，Redis 不可用时返回 -1 由调用方退回本地桶
+     */
+    private long tryAcquireShared(Rule rule, String key) {
+        try {
+            Long waitMicros = redisTemplate.execute(ACQUIRE_SCRIPT,
+                    Collections.singletonList(KEY_PREFIX + rule.name + ":" + key),
+                    Long.toString(rule.intervalNanos / 1000), Long.toString(rule.burstNanos / 1000));
+            if (!redisAvailable) {
+                redisAvailable = true;
+                logger.info("Rate limiter is using Redis again");
+            }
+            return waitMicros == null ? 0 : TimeUnit.MICROSECONDS.toNanos(waitMicros);
+        } catch (RuntimeException e) {
+            if (redisAvailable) {
+                redisAvailable = false;
+                logger.warn("Rate limiter falling back to local buckets - error: {}", e.getMessage());
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 编译后的限流策略
+     */
+    public static final class Rule {
+
+        private final String name;
+
+        private final String path;
+
+        private final Set<String> methods;
+
+        private final String queryParam;
+
+        private final RateLimitProperties.KeyType keyType;
+
+        private final long intervalNanos;
+
+        private final long burstNanos;
+
+        private final Cache<String, TokenBucket> buckets;
+
+        private final Counter rejected;
+
+        Rule(RateLimitProperties.Policy policy, long maxKeys, MeterRegistry meterRegistry) {
+            if (policy.getCapacity() < 1 || policy.getRefillPerSecond() <= 0) {
+                throw new IllegalArgumentException("Invalid rate limit policy: " + policy.getName());
+            }
+            this.name = policy.getName();
+            this.path = policy.getPath();
+            this.methods = new HashSet<>();
+            policy.getMethods().forEach(method -> methods.add(method.toUpperCase(Locale.ROOT)));
+            this.queryParam = policy.getQueryParam();
+            this.keyType = policy.getKey();
+            this.intervalNanos = Math.max(1000, (long) (TimeUnit.SECONDS.toNanos(1) / policy.getRefillPerSecond()));
+            this.burstNanos = intervalNanos * policy.getCapacity();
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(burstNanos))
+                    .build();
+            this.rejected = Counter.builder("library.ratelimit.rejected")
+                    .description("Requests rejected by rate limiting")
+                    .tag("policy", name)
+                    .register(meterRegistry);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public RateLimitProperties.KeyType getKeyType() {
+            return keyType;
+        }
+
+        public boolean matches(HttpServletRequest request) {
+            if (!methods.isEmpty() && !methods.contains(request.getMethod())) {
+                return false;
+            }
+            if (queryParam != null) {
+                String value = request.getParameter(queryParam);
+                if (value == null || value.isBlank()) {
+                    return false;
+                }
+            }
+            return PATH_MATCHER.match(path, request.getRequestURI());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.library.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶，按 GCRA 实现：只保存下一个令牌的理论到达时间，一次 CAS 完成取令牌。
+ * 与传统令牌桶等价，但不需要同时维护令牌数和上次补充时间。
+ */
+final class TokenBucket {
+
+    /**
+     * 理论到达时间（纳秒，System.nanoTime 时间轴），不早于它时桶是满的
+     */
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long now) {
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * 尝试取一个令牌
+     *
+     * @param interval 补充一个令牌的间隔（纳秒）
+     * @param burst    桶容量对应的时长，即 capacity * interval
+     * @return 0 表示放行，否则为需要等待的纳秒数
+     */
+    long tryAcquire(long now, long interval, long burst) {
+        for (;;) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.library.search;
+
+/**
+ * 图书检索引擎
+ * 由 library.search.engine 选择实现：memory（进程内倒排索引）、mysql（FULLTEXT ngram）、like（原 LIKE 查询）
+ */
+public interface BookSearchEngine {
+
+    /**
+     * 按相关度检索图书
+     *
+     * @param keyword 关键词，匹配书名、作者和 ISBN 前缀
+     * @param offset  跳过的命中数
+     * @param limit   返回的最大命中数
+     */
+    SearchHits search(String keyword, long offset, int limit);
+
+    /**
+     * 引擎未就绪（如索引仍在构建）时调用方应退回 LIKE 查询
+     */
+    default boolean isReady() {
+        return true;
+    }
+}
@@ -0,0 +1,131 @@
+package com.library.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 图书检索分词器
+ * 拉丁字母和数字按单词切分并转小写，中日韩文字切分为单字和二元组（bigram）
+ */
+public final class BookTokenizer {
+
+    private BookTokenizer() {
+    }
+
+    /**
+     * 查询词项：拉丁单词按前缀匹配，中日韩词项精确匹配
+     */
+    public record QueryTerm(String text, boolean prefix) {
+    }
+
+    /**
+     * 建索引用的词项集合
+     */
+    public static Set<String> indexTerms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (Run run : split(text)) {
+            if (run.cjk) {
+                int[] cps = run.text.codePoints().toArray();
+                for (int i = 0; i < cps.length; i++) {
+                    terms.add(new String(cps, i, 1));
+                    if (i + 1 < cps.length) {
+                        terms.add(new String(cps, i, 2));
+                    }
+                }
+            } else {
+                terms.add(run.text);
+            }
+        }
+        return terms;
+    }
+
+    public static List<QueryTerm> queryTerms(String text) {
+        List<QueryTerm> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (Run run : split(text)) {
+            if (run.cjk) {
+                int[] cps = run.text.codePoints().toArray();
+                if (cps.length == 1) {
+                    terms.add(new QueryTerm(run.text, false));
+                }
+                for (int i = 0; i + 1 < cps.length; i++) {
+                    terms.add(new QueryTerm(new String(cps, i, 2), false));
+                }
+            } else {
+                terms.add(new QueryTerm(run.text, true));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 关键词像 ISBN（至少 3 位数字，仅含数字、X、连字符和空格）时返回去掉分隔符的形式，否则返回 null
+     */
+    public static String normalizeIsbn(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(keyword.length());
+        int digits = 0;
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+                digits++;
+            } else if (c == 'X' || c == 'x') {
+                sb.append('X');
+            } else if (c != '-' && c != ' ') {
+                return null;
+            }
+        }
+        return digits >= 3 ? sb.toString() : null;
+    }
+
+    private record Run(String text, boolean cjk) {
+    }
+
+    private static List<Run> split(String text) {
+        List<Run> runs = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            boolean cjk = isCjk(cp);
+            if (!cjk && !Character.isLetterOrDigit(cp)) {
+                flush(runs, current, currentCjk);
+                continue;
+            }
+            if (current.length() > 0 && cjk != currentCjk) {
+                flush(runs, current, currentCjk);
+            }
+            currentCjk = cjk;
+            current.appendCodePoint(cjk ? cp : Character.toLowerCase(cp));
+        }
+        flush(runs, current, currentCjk);
+        return runs;
+    }
+
+    private static void flush(List<Run> runs, StringBuilder current, boolean cjk) {
+        if (current.length() > 0) {
+            runs.add(new Run(current.toString().toLowerCase(Locale.ROOT), cjk));
+            current.setLength(0);
+        }
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,499 @@
+package com.library.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.library.entity.Book;
+import com.library.event.BookChangedEvent;
+import com.library.event.BooksImportedEvent;
+import com.library.mapper.BookMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 进程内倒排索引检索引擎
+ * 启动后从 book 表分批加载构建索引，之后由图书变更事件增量维护；
+ * 索引构建期间 isReady() 返回 false，调用方退回 LIKE 查询
+ */
+@Component
+@ConditionalOnProperty(name = "library.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryBookSearchEngine implements BookSearchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryBookSearchEngine.class);
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    // 删除和修改只留下墓碑，墓碑数超过该下限且超过文档槽位的四分之一时压缩
+    private static final int COMPACT_MIN_TOMBSTONES = 1024;
+
+    private final BookMapper bookMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index;
+
+    private volatile boolean ready = false;
+
+    private volatile boolean rebuilding = false;
+
+    // 重建期间发生变更的图书 ID，重建完成后补做索引
+    private final Queue<Long> changedDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    // 重建和压缩都在这一个线程上串行执行，排队中的同类请求合并为一次
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "search-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private final AtomicBoolean compactPending = new AtomicBoolean();
+
+    public InMemoryBookSearchEngine(BookMapper bookMapper) {
+        this.bookMapper = bookMapper;
+        this.index = new Index();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        requestRebuild();
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 提交一次全量重建；已有重建在排队时不再重复提交，正在执行的重建结束后再跑一次
+     */
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuildFromDatabase();
+                } catch (RuntimeException e) {
+                    logger.error("Failed to build book search index", e);
+                }
+            });
+        }
+    }
+
+    private void requestCompaction() {
+        if (compactPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                compactPending.set(false);
+                // 排队中的全量重建同样会去掉墓碑
+                if (rebuildPending.get()) {
+                    return;
+                }
+                try {
+                    compact();
+                } catch (RuntimeException e) {
+                    logger.error("Failed to compact book search index", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 从数据库按主键分批读取检索字段，构建新索引后整体替换
+     */
+    public synchronized void rebuildFromDatabase() {
+        rebuilding = true;
+        try {
+            long start = System.currentTimeMillis();
+            Index fresh = new Index();
+            Long lastId = 0L;
+            while (true) {
+                List<Book> batch = bookMapper.selectList(new LambdaQueryWrapper<Book>()
+                        .select(Book::getId, Book::getTitle, Book::getAuthor, Book::getIsbn)
+                        .gt(Book::getId, lastId)
+                        .orderByAsc(Book::getId)
+                        .last("LIMIT " + LOAD_BATCH_SIZE));
+                batch.forEach(fresh::add);
+                if (batch.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            swap(fresh);
+            logger.info("Book search index built - {} books in {} ms",
+                    fresh.size(), System.currentTimeMillis() - start);
+        } finally {
+            rebuilding = false;
+        }
+        replayChanges();
+        ready = true;
+    }
+
+    /**
+     * 用现存文档在内存中重建索引，去掉墓碑并收紧倒排表；构建时不持有写锁，
+     * 期间的变更与全量重建一样记录下来，替换后从数据库补做
+     */
+    synchronized void compact() {
+        rebuilding = true;
+        try {
+            List<IndexedBook> live;
+            lock.readLock().lock();
+            try {
+                if (!index.needsCompaction()) {
+                    return;
+                }
+                live = index.liveDocs();
+            } finally {
+                lock.readLock().unlock();
+            }
+            long start = System.currentTimeMillis();
+            Index fresh = new Index();
+            live.forEach(fresh::add);
+            swap(fresh);
+            logger.info("Book search index compacted - {} books in {} ms",
+                    fresh.size(), System.currentTimeMillis() - start);
+        } finally {
+            rebuilding = false;
+        }
+        replayChanges();
+    }
+
+    int tombstones() {
+        lock.readLock().lock();
+        try {
+            return index.tombstones();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void replayChanges() {
+        Long changedId;
+        while ((changedId = changedDuringRebuild.poll()) != null) {
+            reindex(changedId);
+        }
+    }
+
+    /**
+     * 用给定图书整体替换索引，供基准测试和离线构建使用
+     */
+    public void rebuild(Iterable<Book> books) {
+        Index fresh = new Index();
+        books.forEach(fresh::add);
+        swap(fresh);
+        ready = true;
+    }
+
+    public void index(Book book) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            index.remove(book.getId());
+            index.add(book);
+            compact = index.needsCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            requestCompaction();
+        }
+    }
+
+    public void remove(Long bookId) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            index.remove(bookId);
+            compact = index.needsCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            requestCompaction();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        Long bookId = event.getBook().getId();
+        if (rebuilding) {
+            changedDuringRebuild.add(bookId);
+        }
+        switch (event.getType()) {
+            case ADDED -> index(event.getBook());
+            case DELETED -> remove(bookId);
+            // 修改请求可能只带部分字段，重新读取整行
+            case UPDATED -> reindex(bookId);
+        }
+    }
+
+    /**
+     * 批量导入不逐本发事件，导入完成后整体重建
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        requestRebuild();
+    }
+
+    private void reindex(Long bookId) {
+        Book book = bookMapper.selectById(bookId);
+        if (book != null) {
+            index(book);
+        } else {
+            remove(bookId);
+        }
+    }
+
+    private void swap(Index fresh) {
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public SearchHits search(String keyword, long offset, int limit) {
+        String normalized = keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return new SearchHits(List.of(), 0);
+        }
+        List<BookTokenizer.QueryTerm> terms = BookTokenizer.queryTerms(normalized);
+        String isbn = BookTokenizer.normalizeIsbn(normalized);
+
+        lock.readLock().lock();
+        try {
+            BitSet matched = null;
+            for (BookTokenizer.QueryTerm term : terms) {
+                BitSet termDocs = index.docsFor(term);
+                if (matched == null) {
+                    matched = termDocs;
+                } else {
+                    matched.and(termDocs);
+                }
+                if (matched.isEmpty()) {
+                    break;
+                }
+            }
+            if (matched == null) {
+                matched = new BitSet();
+            }
+            if (isbn != null) {
+                matched.or(index.docsWithIsbnPrefix(isbn));
+            }
+
+            // 只保留前 offset + limit 个命中的小顶堆，避免对全部命中排序
+            int keep = (int) Math.min(offset + limit, Integer.MAX_VALUE - 8);
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.min(keep, 1024) + 1, RANKING.reversed());
+            int total = 0;
+            for (int docNo = matched.nextSetBit(0); docNo >= 0; docNo = matched.nextSetBit(docNo + 1)) {
+                IndexedBook doc = index.doc(docNo);
+                if (doc == null) {
+                    continue;
+                }
+                total++;
+                ScoredDoc candidate = new ScoredDoc(doc.id, score(doc, normalized, isbn));
+                if (top.size() < keep) {
+                    top.add(candidate);
+                } else if (keep > 0 && RANKING.compare(candidate, top.peek()) < 0) {
+                    top.poll();
+                    top.add(candidate);
+                }
+            }
+
+            List<ScoredDoc> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            List<Long> ids = new ArrayList<>(limit);
+            for (int i = (int) Math.min(offset, ranked.size()); i < ranked.size(); i++) {
+                ids.add(ranked.get(i).id);
+            }
+            return new SearchHits(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 相关度：ISBN 精确/前缀命中优先，其次书名完全匹配、前缀匹配、包含，作者包含加分，短书名略优先
+     */
+    private static double score(IndexedBook doc, String keyword, String isbn) {
+        double score = 0;
+        if (isbn != null && doc.isbn != null) {
+            if (doc.isbn.equals(isbn)) {
+                score += 100;
+            } else if (doc.isbn.startsWith(isbn)) {
+                score += 50;
+            }
+        }
+        if (doc.title.equals(keyword)) {
+            score += 20;
+        } else if (doc.title.startsWith(keyword)) {
+            score += 10;
+        } else if (doc.title.contains(keyword)) {
+            score += 5;
+        }
+        if (doc.author.contains(keyword)) {
+            score += 3;
+        }
+        return score + 1.0 / (1 + doc.title.length());
+    }
+
+    // 相关度降序，同分按 ID 升序
+    private static final Comparator<ScoredDoc> RANKING = Comparator.comparingDouble(ScoredDoc::score).reversed()
+            .thenComparingLong(ScoredDoc::id);
+
+    private record ScoredDoc(long id, double score) {
+    }
+
+    private record IndexedBook(long id, String title, String author, String isbn, String[] terms) {
+    }
+
+    /**
+     * 索引数据：内部文档号从 0 递增，倒排表为按文档号升序的可增长数组
+     * 删除只把文档槽位置空（墓碑），倒排表中的旧文档号在检索时跳过，由压缩统一清理
+     */
+    private static final class Index {
+
+        private final List<IndexedBook> docs = new ArrayList<>();
+        private final Map<Long, Integer> docNoById = new HashMap<>();
+        private final NavigableMap<String, IntBuffer> postings = new TreeMap<>();
+        private final NavigableMap<String, Integer> isbnIndex = new TreeMap<>();
+
+        int size() {
+            return docNoById.size();
+        }
+
+        IndexedBook doc(int docNo) {
+            return docs.get(docNo);
+        }
+
+        void add(Book book) {
+            String title = lower(book.getTitle());
+            String author = lower(book.getAuthor());
+            String isbn = BookTokenizer.normalizeIsbn(book.getIsbn());
+            Set<String> termSet = BookTokenizer.indexTerms(title);
+            termSet.addAll(BookTokenizer.indexTerms(author));
+            add(new IndexedBook(book.getId(), title, author, isbn, termSet.toArray(new String[0])));
+        }
+
+        void add(IndexedBook doc) {
+            int docNo = docs.size();
+            docs.add(doc);
+            docNoById.put(doc.id, docNo);
+            if (doc.isbn != null) {
+                isbnIndex.put(doc.isbn, docNo);
+            }
+            // 新文档号总是最大值，追加后仍有序
+            for (String term : doc.terms) {
+                postings.computeIfAbsent(term, t -> new IntBuffer()).add(docNo);
+            }
+        }
+
+        void remove(Long bookId) {
+            Integer docNo = docNoById.remove(bookId);
+            if (docNo == null) {
+                return;
+            }
+            IndexedBook doc = docs.set(docNo, null);
+            if (doc.isbn != null) {
+                isbnIndex.remove(doc.isbn, docNo);
+            }
+        }
+
+        int tombstones() {
+            return docs.size() - docNoById.size();
+        }
+
+        boolean needsCompaction() {
+            int tombstones = tombstones();
+            return tombstones >= COMPACT_MIN_TOMBSTONES && tombstones > docs.size() / 4;
+        }
+
+        List<IndexedBook> liveDocs() {
+            List<IndexedBook> live = new ArrayList<>(docNoById.size());
+            for (IndexedBook doc : docs) {
+                if (doc != null) {
+                    live.add(doc);
+                }
+            }
+            return live;
+        }
+
+        BitSet docsFor(BookTokenizer.QueryTerm term) {
+            BitSet result = new BitSet(docs.size());
+            if (term.prefix()) {
+                for (IntBuffer docNos : postings.subMap(term.text(), true, term.text() + Character.MAX_VALUE, false).values()) {
+                    docNos.setAll(result);
+                }
+            } else {
+                IntBuffer docNos = postings.get(term.text());
+                if (docNos != null) {
+                    docNos.setAll(result);
+                }
+            }
+            return result;
+        }
+
+        BitSet docsWithIsbnPrefix(String isbn) {
+            BitSet result = new BitSet(docs.size());
+            for (int docNo : isbnIndex.subMap(isbn, true, isbn + Character.MAX_VALUE, false).values()) {
+                result.set(docNo);
+            }
+            return result;
+        }
+
+        private static String lower(String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final class IntBuffer {
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        /**
+         * 只读取 size 之内的元素；写锁下追加、读锁下遍历，不会并发读写
+         */
+        void setAll(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(data[i]);
+            }
+        }
+    }
+}
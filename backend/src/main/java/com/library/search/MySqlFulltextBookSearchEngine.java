@@ -0,0 +1,48 @@
+package com.library.search;
+
+import com.library.mapper.BookMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * MySQL FULLTEXT 检索引擎
+ * 依赖 book(title, author) 上的 ngram FULLTEXT 索引，ISBN 走唯一索引的前缀匹配；
+ * ngram 默认词长为 2，单字关键词只能命中 ISBN
+ */
+@Component
+@ConditionalOnProperty(name = "library.search.engine", havingValue = "mysql")
+public class MySqlFulltextBookSearchEngine implements BookSearchEngine {
+
+    private final BookMapper bookMapper;
+
+    public MySqlFulltextBookSearchEngine(BookMapper bookMapper) {
+        this.bookMapper = bookMapper;
+    }
+
+    @Override
+    public SearchHits search(String keyword, long offset, int limit) {
+        String query = toBooleanPhrase(keyword);
+        String isbn = BookTokenizer.normalizeIsbn(keyword);
+        if (query == null && isbn == null) {
+            return new SearchHits(List.of(), 0);
+        }
+        long total = bookMapper.countFulltext(query, isbn);
+        if (total == 0 || offset >= total) {
+            return new SearchHits(List.of(), total);
+        }
+        return new SearchHits(bookMapper.selectFulltextIds(query, isbn, offset, limit), total);
+    }
+
+    /**
+     * 去掉布尔模式运算符后整体作为短语查询，ngram 解析器下等价于包含匹配
+     */
+    private static String toBooleanPhrase(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String cleaned = keyword.replaceAll("[+\\-<>()~*\"@]", " ").trim();
+        return cleaned.isEmpty() ? null : "\"" + cleaned + "\"";
+    }
+}
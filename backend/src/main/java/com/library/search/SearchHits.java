@@ -0,0 +1,14 @@
+package com.library.search;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * 检索结果：当前页图书 ID（按相关度排序）和命中总数
+ */
+@Value
+public class SearchHits {
+    List<Long> ids;
+    long total;
+}
@@ -0,0 +1,38 @@
+package com.library.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.common.Result;
+import com.library.exception.ErrorCode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 未认证请求统一返回 401 JSON
+ * 未配置表单登录和 Basic 认证时默认入口点返回 403，前端只在 401 时刷新令牌，过期令牌会一直被拒
+ */
+@Component
+public class JsonAuthenticationEntryPoint implements AuthenticationEntryPoint {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonAuthenticationEntryPoint(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response,
+                         AuthenticationException authException) throws IOException {
+        ErrorCode code = ErrorCode.TOKEN_INVALID;
+        response.setStatus(code.getStatus());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Result.error(code.getStatus(), code.getMessage()));
+    }
+}
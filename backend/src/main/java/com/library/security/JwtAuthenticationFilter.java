@@ -1,6 +1,8 @@
 package com.library.security;
 
+import com.library.util.JwtPrincipal;
 import com.library.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,7 +13,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
@@ -25,34 +26,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationStore revocationStore;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // 一次验签得到全部声明，重复请求命中已验签缓存
+            JwtPrincipal principal = null;
             try {
-                username = jwtUtil.getUsernameFromToken(jwt);
-            } catch (Exception e) {
-                logger.error("JWT Token validation failed", e);
+                principal = jwtUtil.verify(authHeader.substring(7));
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.warn("JWT Token validation failed: {}", e.getMessage());
             }
-        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(jwt, username)) {
-                Long userId = jwtUtil.getUserIdFromToken(jwt);
-                String role = jwtUtil.getRoleFromToken(jwt);
+            // 刷新令牌只能用于 /api/auth/refresh，吊销检查只读内存
+            if (principal != null && (!principal.isAccessToken() || revocationStore.isRevoked(principal))) {
+                logger.debug("JWT Token rejected - userId: {}, type: {}", principal.getUserId(), principal.getType());
+                principal = null;
+            }
 
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userId,
+                        principal.getUserId(),
                         null,
-                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.getRole()))
                 );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                // 主体仍为用户ID，解析出的令牌放在 details 里供审计等读取用户名
+                authToken.setDetails(principal);
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
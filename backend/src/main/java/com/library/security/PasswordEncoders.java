@@ -0,0 +1,74 @@
+package com.library.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 可配置的密码哈希策略
+ * 新哈希带 {id} 前缀，历史数据中无前缀的 $2a$/$2b$ 哈希按 BCrypt 校验。
+ * upgradeEncoding 在算法不同或 BCrypt 成本与配置不一致时返回 true（调高、调低都会触发），供登录时透明重算。
+ */
+public final class PasswordEncoders {
+
+    public static final String BCRYPT = "bcrypt";
+
+    public static final String PBKDF2 = "pbkdf2";
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^(?:\\{bcrypt})?\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private PasswordEncoders() {
+    }
+
+    public static PasswordEncoder create(String algorithm, int bcryptStrength) {
+        if (!BCRYPT.equals(algorithm) && !PBKDF2.equals(algorithm)) {
+            throw new IllegalArgumentException("不支持的密码哈希算法: " + algorithm + "，仅支持 bcrypt 和 pbkdf2");
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                int cost = bcryptCost(encodedPassword);
+                return cost > 0 && cost != bcryptStrength;
+            }
+        };
+        PasswordEncoder pbkdf2 = Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, Map.of(BCRYPT, bcrypt, PBKDF2, pbkdf2));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return encoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encoder.matches(rawPassword, encodedPassword);
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                // 无前缀的历史 BCrypt 哈希：算法相同时只比较成本，算法已切换时需要重算
+                if (encodedPassword != null && !encodedPassword.startsWith("{")) {
+                    return !BCRYPT.equals(algorithm) || bcrypt.upgradeEncoding(encodedPassword);
+                }
+                return encoder.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    /**
+     * 从 BCrypt 哈希中解析成本参数，不是 BCrypt 哈希时返回 -1
+     */
+    public static int bcryptCost(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+}
@@ -0,0 +1,171 @@
+package com.library.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 密码校验与哈希计算
+ * BCrypt 等慢哈希只在固定大小的专用线程池上执行，排队有上限，满时直接拒绝，避免登录高峰占满请求线程和 CPU。
+ * 校验成功的凭据按 HMAC(进程随机密钥, 用户名 + 明文 + 存储哈希) 缓存一段时间，同一用户重复登录不再重算哈希；
+ * 存储哈希参与摘要，改密码或重算哈希后旧缓存自然失效，内存中也不保留可离线爆破的密码摘要。
+ */
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutMillis;
+
+    // 为 null 时不缓存
+    private final Cache<ByteBuffer, Boolean> verified;
+
+    private final SecretKeySpec cacheKey;
+
+    private final Counter cacheHits;
+    private final Counter hashes;
+    private final Counter rejected;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            MeterRegistry meterRegistry,
+                            @Value("${library.password.hash-threads:0}") int threads,
+                            @Value("${library.password.hash-queue-capacity:64}") int queueCapacity,
+                            @Value("${library.password.hash-timeout:5000}") long timeoutMillis,
+                            @Value("${library.password.verified-cache-ttl:10m}") Duration cacheTtl,
+                            @Value("${library.password.verified-cache-size:10000}") int cacheSize) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMillis = timeoutMillis;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.verified = cacheTtl.isZero() || cacheSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.cacheKey = new SecretKeySpec(secret, "HmacSHA256");
+        this.cacheHits = Counter.builder("library.password.verifications").tag("result", "cache_hit").register(meterRegistry);
+        this.hashes = Counter.builder("library.password.verifications").tag("result", "hashed").register(meterRegistry);
+        this.rejected = Counter.builder("library.password.verifications").tag("result", "rejected").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 校验明文密码与存储哈希是否匹配，命中凭据缓存时不计算哈希
+     *
+     * @throws com.library.exception.BusinessException 哈希线程池排队已满或等待超时
+     */
+    public boolean matches(String username, String rawPassword, String encodedPassword) {
+        ByteBuffer key = verified != null ? cacheKey(username, rawPassword, encodedPassword) : null;
+        if (key != null && verified.getIfPresent(key) != null) {
+            cacheHits.increment();
+            return true;
+        }
+        hashes.increment();
+        boolean matched = call(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        if (matched && key != null) {
+            verified.put(key, Boolean.TRUE);
+        }
+        return matched;
+    }
+
+    /**
+     * 同步计算新哈希（注册、改密码）
+     */
+    public String encode(String rawPassword) {
+        return call(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * 异步计算新哈希，用于登录后的透明重算，排队已满时放弃本次重算
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 存储哈希的算法或成本是否与当前配置不一致
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T call(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw ErrorCode.LOGIN_BUSY.exception();
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw ErrorCode.LOGIN_BUSY.exception();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw ErrorCode.LOGIN_BUSY.exception();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码哈希计算失败", e.getCause());
+        }
+    }
+
+    private ByteBuffer cacheKey(String username, String rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(cacheKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(rawPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return ByteBuffer.wrap(mac.doFinal(encodedPassword.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
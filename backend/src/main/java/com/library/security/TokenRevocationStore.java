@@ -0,0 +1,307 @@
+package com.library.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.library.util.JwtPrincipal;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌吊销表：按 jti 吊销单个令牌，或按用户吊销某一时刻之前签发的全部令牌。
+ * 校验只读本地内存，布隆过滤器先挡掉绝大多数未吊销的令牌；记录随令牌过期自动清除，
+ * 占用只与有效期内的吊销次数有关，与签发总量无关。
+ * 开启 Redis 时吊销记录同时写入带 TTL 的键，经发布订阅同步到其他节点，节点启动后从 Redis 补齐。
+ */
+@Component
+public class TokenRevocationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    public static final String REVOCATION_CHANNEL = "library:auth:revoke";
+
+    private static final String KEY_PREFIX = "library:auth:revoked:";
+
+    private static final String TOKEN = "token:";
+
+    private static final String USER = "user:";
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    // 节点标识，忽略自己发出的吊销消息
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final long maxTokenLifetime;
+
+    private final long maxSize;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * jti -> 令牌过期时间，条目在令牌过期时失效
+     */
+    private final Cache<UUID, Long> revokedTokens;
+
+    /**
+     * userId -> 吊销截止时间，签发时间早于它的令牌一律无效
+     */
+    private final Cache<Long, Long> userCutoffs;
+
+    // 两代过滤器轮换，每代覆盖一个最长令牌有效期，已过期令牌的位随旧代一起丢弃
+    private volatile BloomFilter current;
+
+    private volatile BloomFilter previous;
+
+    private long rotatedAt;
+
+    // 精确表曾因容量上限淘汰过条目，此后过滤器命中但本地未命中时要回查 Redis
+    private volatile boolean overflowed;
+
+    @Autowired
+    public TokenRevocationStore(@Value("${jwt.refresh-expiration:604800000}") long maxTokenLifetime,
+                                @Value("${jwt.revocation.max-size:1000000}") long maxSize,
+                                @Value("${jwt.revocation.redis-enabled:true}") boolean redisEnabled,
+                                ObjectProvider<StringRedisTemplate> redisTemplate) {
+        this(maxTokenLifetime, maxSize, redisEnabled ? redisTemplate.getIfAvailable() : null);
+    }
+
+    public TokenRevocationStore(long maxTokenLifetime, long maxSize, StringRedisTemplate redisTemplate) {
+        this.maxTokenLifetime = maxTokenLifetime;
+        this.maxSize = maxSize;
+        this.redisTemplate = redisTemplate;
+        this.current = new BloomFilter(maxSize, FALSE_POSITIVE_RATE);
+        this.previous = new BloomFilter(1, FALSE_POSITIVE_RATE);
+        this.rotatedAt = System.currentTimeMillis();
+        this.revokedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .evictionListener((UUID id, Long expiresAt, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE && !overflowed) {
+                        overflowed = true;
+                        logger.warn("Token revocation table is full (max-size: {}), falling back to Redis lookups", maxSize);
+                    }
+                })
+                .build();
+        this.userCutoffs = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(maxTokenLifetime))
+                .build();
+        this.listenerContainer = redisTemplate != null ? listenerContainer(redisTemplate) : null;
+    }
+
+    /**
+     * 令牌是否已被吊销，只查内存；过期与验签由 JwtUtil 负责
+     */
+    public boolean isRevoked(JwtPrincipal token) {
+        if (token.getUserId() != null) {
+            Long cutoff = userCutoffs.getIfPresent(token.getUserId());
+            if (cutoff != null && token.getIssuedAt() < cutoff) {
+                return true;
+            }
+        }
+        UUID id = token.getTokenId();
+        if (id == null || !(current.mightContain(id) || previous.mightContain(id))) {
+            return false;
+        }
+        if (revokedTokens.getIfPresent(id) != null) {
+            return true;
+        }
+        return overflowed && revokedInRedis(id);
+    }
+
+    /**
+     * 吊销单个令牌；升级前签发的令牌没有 jti，退化为吊销该用户的全部令牌
+     */
+    public void revoke(JwtPrincipal token) {
+        if (token.getTokenId() == null) {
+            revokeAll(token.getUserId());
+            return;
+        }
+        long remaining = token.getExpiresAt() - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return;
+        }
+        String id = token.getTokenId().toString();
+        String expiresAt = Long.toString(token.getExpiresAt());
+        apply(TOKEN + id, expiresAt);
+        share(TOKEN + id, expiresAt, remaining);
+    }
+
+    /**
+     * 吊销用户此刻之前签发的全部访问令牌和刷新令牌，用于禁用账户或退出所有设备
+     */
+    public void revokeAll(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        // JWT 的签发时间只精确到秒，截止时间取下一整秒，当前这一秒内签发的令牌同样失效
+        String cutoff = Long.toString((System.currentTimeMillis() / 1000 + 1) * 1000);
+        apply(USER + userId, cutoff);
+        share(USER + userId, cutoff, maxTokenLifetime);
+    }
+
+    private void apply(String key, String value) {
+        long parsed = Long.parseLong(value);
+        if (key.startsWith(TOKEN)) {
+            UUID id = UUID.fromString(key.substring(TOKEN.length()));
+            if (parsed > System.currentTimeMillis()) {
+                addToken(id, parsed);
+            }
+        } else if (key.startsWith(USER)) {
+            userCutoffs.asMap().merge(Long.valueOf(key.substring(USER.length())), parsed, Math::max);
+        }
+    }
+
+    private synchronized void addToken(UUID id, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (now - rotatedAt >= maxTokenLifetime) {
+            previous = current;
+            current = new BloomFilter(maxSize, FALSE_POSITIVE_RATE);
+            rotatedAt = now;
+        }
+        // 先写精确表再置位，过滤器命中时精确表中一定已有记录
+        revokedTokens.put(id, expiresAt);
+        current.put(id);
+    }
+
+    private void share(String key, String value, long ttlMillis) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, value, Duration.ofMillis(ttlMillis));
+            redisTemplate.convertAndSend(REVOCATION_CHANNEL, nodeId + "\n" + key + "\n" + value);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to share token revocation - key: {}, error: {}", key, e.getMessage());
+        }
+    }
+
+    private boolean revokedInRedis(UUID id) {
+        if (redisTemplate == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + TOKEN + id));
+        } catch (RuntimeException e) {
+            // 只有过滤器命中才会走到这里，无法确认时按已吊销处理
+            logger.warn("Token revocation lookup failed - jti: {}, error: {}", id, e.getMessage());
+            return true;
+        }
+    }
+
+    private RedisMessageListenerContainer listenerContainer(StringRedisTemplate redisTemplate) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        container.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+            if (parts.length < 3 || nodeId.equals(parts[0])) {
+                return;
+            }
+            try {
+                apply(parts[1], parts[2]);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring malformed token revocation message: {}", parts[1]);
+            }
+        }, new ChannelTopic(REVOCATION_CHANNEL));
+        container.afterPropertiesSet();
+        return container;
+    }
+
+    /**
+     * 订阅吊销频道并加载 Redis 中尚未过期的吊销记录，Redis 不可用时等待下次重试
+     */
+    @Scheduled(fixedDelayString = "${library.cache.subscribe-retry-interval:30000}")
+    public void subscribe() {
+        if (listenerContainer == null || listenerContainer.isRunning()) {
+            return;
+        }
+        try {
+            listenerContainer.start();
+            int loaded = load();
+            logger.info("Subscribed to token revocation channel: {}, loaded {} revocations", REVOCATION_CHANNEL, loaded);
+        } catch (RuntimeException e) {
+            listenerContainer.stop();
+            logger.warn("Token revocation subscription failed, will retry - error: {}", e.getMessage());
+        }
+    }
+
+    private int load() {
+        int loaded = 0;
+        List<String> keys = new ArrayList<>(LOAD_BATCH_SIZE);
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(LOAD_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() == LOAD_BATCH_SIZE || !cursor.hasNext()) {
+                    loaded += loadBatch(keys);
+                    keys.clear();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private int loadBatch(List<String> keys) {
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values == null) {
+            return 0;
+        }
+        int loaded = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (values.get(i) != null) {
+                apply(keys.get(i).substring(KEY_PREFIX.length()), values.get(i));
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<UUID, Long> {
+
+        @Override
+        public long expireAfterCreate(UUID key, Long expiresAt, long currentTime) {
+            long remainingMillis = expiresAt - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID key, Long expiresAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, expiresAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID key, Long expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.library.service;
+
+import com.library.dto.ImportJob;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface BookImportService {
+
+    /**
+     * 保存上传文件并提交后台导入任务
+     *
+     * @param format csv 或 jsonl，为空时按文件扩展名判断
+     */
+    ImportJob submit(MultipartFile file, String format);
+
+    ImportJob getJob(String jobId);
+}
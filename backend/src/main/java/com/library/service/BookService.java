@@ -2,13 +2,50 @@ package com.library.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.library.common.CursorPage;
 import com.library.entity.Book;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
 public interface BookService extends IService<Book> {
-    IPage<Book> getBookList(int page, int size, String keyword);
+    /**
+     * @param categoryId 只返回该分类的图书，为 null 时不过滤
+     */
+    IPage<Book> getBookList(int page, int size, String keyword, Long categoryId);
+    CursorPage<Book> getBookListAfter(String after, int size, boolean withTotal, Long categoryId);
     Book addBook(Book book);
     Book updateBook(Book book);
     void deleteBook(Long id);
     Book getBookById(Long id);
+
+    /**
+     * 调整库存，图书不存在或调整后越界时抛出 INVENTORY_CONFLICT 使事务回滚
+     */
     void updateAvailableQuantity(Long bookId, int quantity);
+
+    boolean decreaseAvailableQuantity(Long bookId);
+
+    /**
+     * 一次扣减 quantity 本库存，库存不足时整体不扣
+     *
+     * @return 是否扣减成功
+     */
+    boolean decreaseAvailableQuantity(Long bookId, int quantity);
+
+    /**
+     * 批量扣减库存，每本一条条件 UPDATE，一次批量发送
+     *
+     * @return 扣减成功的图书ID
+     */
+    Set<Long> decreaseAvailableQuantities(Collection<Long> bookIds);
+
+    /**
+     * 批量归还库存，归还后超过总数量或图书已删除的不更新
+     *
+     * @param counts 图书ID到归还本数
+     * @return 归还成功的图书ID
+     */
+    Set<Long> increaseAvailableQuantities(Map<Long, Integer> counts);
 }
@@ -2,15 +2,24 @@ package com.library.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.library.common.CursorPage;
+import com.library.dto.BatchBorrowResult;
 import com.library.dto.BorrowRecordDTO;
 import com.library.entity.BorrowRecord;
 
+import java.util.List;
+
 public interface BorrowService extends IService<BorrowRecord> {
     IPage<BorrowRecord> getBorrowList(int page, int size, Long userId, String status);
+    CursorPage<BorrowRecord> getBorrowListAfter(String after, int size, Long userId, String status, boolean withTotal);
     IPage<BorrowRecordDTO> getCurrentUserBorrowList(int page, int size);
     IPage<BorrowRecordDTO> getUserBorrowHistoryWithBook(Long userId, int page, int size);
+    CursorPage<BorrowRecordDTO> getUserBorrowHistoryAfter(Long userId, String after, int size, boolean withTotal);
     BorrowRecord borrowBook(Long userId, Long bookId);
     BorrowRecord returnBook(Long recordId);
     BorrowRecord renewBook(Long recordId);
+    BatchBorrowResult borrowBooks(Long userId, List<Long> bookIds);
+    BatchBorrowResult returnBooks(List<Long> recordIds);
+    BatchBorrowResult renewBooks(List<Long> recordIds);
     IPage<BorrowRecord> getUserBorrowHistory(Long userId, int page, int size);
 }
@@ -0,0 +1,30 @@
+package com.library.service;
+
+import com.library.dto.CategoryStats;
+import com.library.entity.BookCategory;
+
+import java.util.List;
+
+public interface CategoryService {
+
+    /**
+     * 全部分类，按 ID 升序，读取内存快照
+     */
+    List<BookCategory> listCategories();
+
+    /**
+     * @return 分类，不存在时为 null
+     */
+    BookCategory getCategory(Long id);
+
+    BookCategory addCategory(BookCategory category);
+
+    BookCategory updateCategory(BookCategory category);
+
+    void deleteCategory(Long id);
+
+    /**
+     * 各分类的图书种数、总册数、可借册数和借出册数，未分类图书单独一项（categoryId 为 null）
+     */
+    List<CategoryStats> getCategoryStats();
+}
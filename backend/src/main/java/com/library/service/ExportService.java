@@ -0,0 +1,23 @@
+package com.library.service;
+
+import com.library.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    /**
+     * 流式导出全部图书
+     *
+     * @return 导出行数
+     */
+    long exportBooks(ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * 流式导出借阅记录，userId、status 为空时不过滤
+     *
+     * @return 导出行数
+     */
+    long exportBorrowRecords(Long userId, String status, ExportFormat format, OutputStream out) throws IOException;
+}
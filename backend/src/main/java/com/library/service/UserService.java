@@ -7,4 +7,6 @@ public interface UserService extends IService<User> {
     User login(String username, String password);
     User register(User user);
     User getUserByUsername(String username);
+    boolean updatePasswordHash(User user, String newHash);
+    void updateStatus(User user, Integer status);
 }
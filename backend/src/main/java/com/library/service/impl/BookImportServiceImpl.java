@@ -0,0 +1,525 @@
+package com.library.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.cache.CacheNames;
+import com.library.dto.ImportJob;
+import com.library.entity.Book;
+import com.library.entity.BookCategory;
+import com.library.event.BooksImportedEvent;
+import com.library.exception.ErrorCode;
+import com.library.mapper.BookCategoryMapper;
+import com.library.service.BookImportService;
+import com.library.util.CsvReader;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 图书批量导入：上传文件先落盘，后台线程逐行流式解析 CSV / JSON Lines，
+ * 校验后按 ISBN 去重，用 INSERT ... ON DUPLICATE KEY UPDATE 分批写入
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportServiceImpl.class);
+
+    // 已存在的 ISBN 更新图书信息并恢复软删除；可借数量按已借出数量折算，赋值顺序依赖旧的 total_quantity
+    private static final String UPSERT_SQL = "INSERT INTO book "
+            + "(isbn, title, author, publisher, publish_date, category_id, price, total_quantity, available_quantity, "
+            + "location, description, cover_url, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0) "
+            + "ON DUPLICATE KEY UPDATE title = VALUES(title), author = VALUES(author), publisher = VALUES(publisher), "
+            + "publish_date = VALUES(publish_date), category_id = VALUES(category_id), price = VALUES(price), "
+            + "available_quantity = IF(deleted = 1, VALUES(available_quantity), "
+            + "GREATEST(0, LEAST(VALUES(total_quantity), available_quantity + VALUES(total_quantity) - total_quantity))), "
+            + "total_quantity = VALUES(total_quantity), location = VALUES(location), description = VALUES(description), "
+            + "cover_url = VALUES(cover_url), deleted = 0";
+
+    private static final ParameterizedPreparedStatementSetter<Book> UPSERT_SETTER = (ps, book) -> {
+        ps.setString(1, book.getIsbn());
+        ps.setString(2, book.getTitle());
+        ps.setString(3, book.getAuthor());
+        ps.setString(4, book.getPublisher());
+        ps.setDate(5, book.getPublishDate() != null ? Date.valueOf(book.getPublishDate()) : null);
+        ps.setObject(6, book.getCategoryId(), Types.BIGINT);
+        ps.setBigDecimal(7, book.getPrice());
+        ps.setInt(8, book.getTotalQuantity());
+        ps.setInt(9, book.getAvailableQuantity());
+        ps.setString(10, book.getLocation());
+        ps.setString(11, book.getDescription());
+        ps.setString(12, book.getCoverUrl());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookCategoryMapper bookCategoryMapper;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+
+    private final int batchSize;
+    private final long jobRetentionMillis;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor executor;
+
+    public BookImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 BookCategoryMapper bookCategoryMapper,
+                                 ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher,
+                                 CacheManager cacheManager,
+                                 @Value("${library.import.batch-size:1000}") int batchSize,
+                                 @Value("${library.import.max-pending-jobs:4}") int maxPendingJobs,
+                                 @Value("${library.import.job-retention:3600000}") long jobRetentionMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookCategoryMapper = bookCategoryMapper;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.batchSize = batchSize;
+        this.jobRetentionMillis = jobRetentionMillis;
+        // 单线程顺序导入，避免多个大文件同时争用同一批唯一索引行锁
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxPendingJobs), r -> {
+                    Thread thread = new Thread(r, "book-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ImportJob submit(MultipartFile file, String format) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("导入文件不能为空");
+        }
+        String resolvedFormat = resolveFormat(file.getOriginalFilename(), format);
+        pruneFinishedJobs();
+
+        ImportJob job = new ImportJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setFileName(file.getOriginalFilename());
+        job.setFormat(resolvedFormat);
+        job.setCreateTime(LocalDateTime.now());
+
+        Path tempFile;
+        try {
+            // 请求结束后上传的临时文件会被清理，先转存一份供后台任务读取
+            tempFile = Files.createTempFile("book-import-", "." + resolvedFormat);
+            file.transferTo(tempFile);
+        } catch (IOException e) {
+            logger.error("Failed to store import file: {}", file.getOriginalFilename(), e);
+            throw ErrorCode.IMPORT_FILE_SAVE_FAILED.exception();
+        }
+
+        jobs.put(job.getJobId(), job);
+        try {
+            executor.execute(() -> run(job, tempFile));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            deleteQuietly(tempFile);
+            throw ErrorCode.IMPORT_QUEUE_FULL.exception();
+        }
+        logger.info("Book import submitted - jobId: {}, file: {}, size: {} bytes",
+                job.getJobId(), file.getOriginalFilename(), file.getSize());
+        return job;
+    }
+
+    @Override
+    public ImportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private static String resolveFormat(String fileName, String format) {
+        String value = format;
+        if (value == null || value.isEmpty()) {
+            String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+            value = name.substring(name.lastIndexOf('.') + 1);
+        }
+        value = value.toLowerCase(Locale.ROOT);
+        return switch (value) {
+            case "csv" -> "csv";
+            case "jsonl", "ndjson" -> "jsonl";
+            default -> throw new IllegalArgumentException("不支持的导入格式: " + value + "，仅支持 csv 和 jsonl");
+        };
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(jobRetentionMillis, ChronoUnit.MILLIS);
+        jobs.values().removeIf(job -> job.getFinishTime() != null && job.getFinishTime().isBefore(threshold));
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.setStatus(ImportJob.Status.RUNNING);
+        long start = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Set<Long> categoryIds = bookCategoryMapper.selectList(null).stream()
+                    .map(BookCategory::getId)
+                    .collect(Collectors.toSet());
+            Iterator<Row> rows = "csv".equals(job.getFormat()) ? csvRows(reader) : jsonRows(reader);
+
+            // 同一批次内按 ISBN 去重，保留后出现的行
+            Map<String, Row> batch = new LinkedHashMap<>();
+            while (rows.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                Row row = rows.next();
+                job.setProcessedRows(job.getProcessedRows() + 1);
+                if (row.error != null) {
+                    job.addError("第" + row.line + "行: " + row.error);
+                    continue;
+                }
+                Book book;
+                try {
+                    book = toBook(row.fields, categoryIds);
+                } catch (IllegalArgumentException e) {
+                    job.addError("第" + row.line + "行: " + e.getMessage());
+                    continue;
+                }
+                if (batch.put(book.getIsbn(), new Row(row.line, book)) != null) {
+                    job.setDuplicateRows(job.getDuplicateRows() + 1);
+                }
+                if (batch.size() >= batchSize) {
+                    flush(job, batch);
+                }
+            }
+            flush(job, batch);
+
+            job.setStatus(ImportJob.Status.COMPLETED);
+            job.setMessage("导入完成");
+            logger.info("Book import completed - jobId: {}, rows: {}, upserted: {}, failed: {}, {} ms",
+                    job.getJobId(), job.getProcessedRows(), job.getUpsertedRows(), job.getFailedRows(),
+                    System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setMessage("导入任务被中断");
+        } catch (Exception e) {
+            logger.error("Book import failed - jobId: {}", job.getJobId(), e);
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setMessage("导入失败: " + e.getMessage());
+        } finally {
+            job.setFinishTime(LocalDateTime.now());
+            deleteQuietly(file);
+            if (job.getUpsertedRows() > 0) {
+                Cache books = cacheManager.getCache(CacheNames.BOOKS);
+                if (books != null) {
+                    books.clear();
+                }
+                eventPublisher.publishEvent(new BooksImportedEvent(job.getJobId(), job.getUpsertedRows()));
+            }
+        }
+    }
+
+    /**
+     * 写入一批；整批失败时逐行重试，定位出错的行
+     */
+    private void flush(ImportJob job, Map<String, Row> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Book> books = batch.values().stream().map(row -> row.book).toList();
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, books, books.size(), UPSERT_SETTER);
+            job.setUpsertedRows(job.getUpsertedRows() + books.size());
+        } catch (DataAccessException e) {
+            logger.warn("Import batch failed, retrying row by row - jobId: {}, error: {}",
+                    job.getJobId(), e.getMostSpecificCause().getMessage());
+            for (Row row : batch.values()) {
+                try {
+                    jdbcTemplate.update(UPSERT_SQL, ps -> UPSERT_SETTER.setValues(ps, row.book));
+                    job.setUpsertedRows(job.getUpsertedRows() + 1);
+                } catch (DataAccessException rowError) {
+                    job.addError("第" + row.line + "行: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private Iterator<Row> csvRows(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("文件为空");
+        }
+        List<String> columns = header.stream().map(BookImportServiceImpl::normalizeKey).toList();
+        if (!columns.contains("isbn")) {
+            throw new IllegalArgumentException("表头缺少 isbn 列");
+        }
+        return new RowIterator() {
+            @Override
+            Row read() throws IOException {
+                List<String> values;
+                try {
+                    values = csv.next();
+                } catch (IllegalArgumentException e) {
+                    return new Row(csv.getRecordLine(), e.getMessage());
+                }
+                if (values == null) {
+                    return null;
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < columns.size() && i < values.size(); i++) {
+                    fields.put(columns.get(i), values.get(i));
+                }
+                return new Row(csv.getRecordLine(), fields);
+            }
+        };
+    }
+
+    private Iterator<Row> jsonRows(BufferedReader reader) {
+        return new RowIterator() {
+            private long line;
+
+            @Override
+            Row read() throws IOException {
+                String text;
+                do {
+                    text = reader.readLine();
+                    if (text == null) {
+                        return null;
+                    }
+                    line++;
+                    if (line == 1 && !text.isEmpty() && text.charAt(0) == '\uFEFF') {
+                        text = text.substring(1);
+                    }
+                } while (text.isBlank());
+                try {
+                    JsonNode node = objectMapper.readTree(text);
+                    if (!node.isObject()) {
+                        return new Row(line, "不是 JSON 对象");
+                    }
+                    Map<String, String> fields = new HashMap<>();
+                    node.fields().forEachRemaining(entry -> {
+                        if (!entry.getValue().isNull()) {
+                            fields.put(normalizeKey(entry.getKey()), entry.getValue().asText());
+                        }
+                    });
+                    return new Row(line, fields);
+                } catch (IOException e) {
+                    return new Row(line, "JSON 格式错误");
+                }
+            }
+        };
+    }
+
+    /**
+     * 列名统一为小写并去掉下划线，publish_date 与 publishDate 等价
+     */
+    static String normalizeKey(String key) {
+        return key.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 校验一行并转换为图书
+     *
+     * @throws IllegalArgumentException 校验失败，消息说明原因
+     */
+    static Book toBook(Map<String, String> fields, Set<Long> categoryIds) {
+        Book book = new Book();
+        book.setIsbn(required(fields, "isbn", "ISBN", 20));
+        book.setTitle(required(fields, "title", "书名", 100));
+        book.setAuthor(required(fields, "author", "作者", 50));
+        book.setPublisher(optional(fields, "publisher", "出版社", 50));
+        book.setLocation(optional(fields, "location", "存放位置", 50));
+        book.setDescription(optional(fields, "description", "图书描述", 65535));
+        book.setCoverUrl(optional(fields, "coverurl", "封面图片URL", 200));
+
+        String publishDate = optional(fields, "publishdate", "出版日期", 10);
+        if (publishDate != null) {
+            try {
+                book.setPublishDate(LocalDate.parse(publishDate));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("出版日期格式应为 yyyy-MM-dd");
+            }
+        }
+
+        String categoryId = optional(fields, "categoryid", "分类ID", 20);
+        if (categoryId != null) {
+            Long id = parseLong(categoryId, "分类ID");
+            if (!categoryIds.contains(id)) {
+                throw new IllegalArgumentException("分类不存在: " + id);
+            }
+            book.setCategoryId(id);
+        }
+
+        String price = optional(fields, "price", "价格", 20);
+        if (price != null) {
+            try {
+                BigDecimal value = new BigDecimal(price);
+                if (value.signum() < 0 || value.scale() > 2 || value.precision() - value.scale() > 8) {
+                    throw new NumberFormatException();
+                }
+                book.setPrice(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("价格无效: " + price);
+            }
+        }
+
+        String total = optional(fields, "totalquantity", "总数量", 10);
+        int totalQuantity = total != null ? parseQuantity(total, "总数量") : 0;
+        String available = optional(fields, "availablequantity", "可借数量", 10);
+        int availableQuantity = available != null ? parseQuantity(available, "可借数量") : totalQuantity;
+        if (availableQuantity > totalQuantity) {
+            throw new IllegalArgumentException("可借数量不能大于总数量");
+        }
+        book.setTotalQuantity(totalQuantity);
+        book.setAvailableQuantity(availableQuantity);
+        return book;
+    }
+
+    private static String required(Map<String, String> fields, String key, String label, int maxLength) {
+        String value = optional(fields, key, label, maxLength);
+        if (value == null) {
+            throw new IllegalArgumentException(label + "不能为空");
+        }
+        return value;
+    }
+
+    private static String optional(Map<String, String> fields, String key, String label, int maxLength) {
+        String value = fields.get(key);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        value = value.trim();
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(label + "长度不能超过" + maxLength);
+        }
+        return value;
+    }
+
+    private static Long parseLong(String value, String label) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(label + "无效: " + value);
+        }
+    }
+
+    private static int parseQuantity(String value, String label) {
+        try {
+            int quantity = Integer.parseInt(value);
+            if (quantity < 0) {
+                throw new NumberFormatException();
+            }
+            return quantity;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(label + "无效: " + value);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete import temp file: {}", file);
+        }
+    }
+
+    /**
+     * 一行解析结果：字段、转换后的图书或解析错误
+     */
+    private static final class Row {
+        final long line;
+        final Map<String, String> fields;
+        final Book book;
+        final String error;
+
+        Row(long line, Map<String, String> fields) {
+            this(line, fields, null, null);
+        }
+
+        Row(long line, Book book) {
+            this(line, null, book, null);
+        }
+
+        Row(long line, String error) {
+            this(line, null, null, error);
+        }
+
+        private Row(long line, Map<String, String> fields, Book book, String error) {
+            this.line = line;
+            this.fields = fields;
+            this.book = book;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 预读一行的迭代器，读取时的 IO 异常包装为 UncheckedIOException
+     */
+    private abstract static class RowIterator implements Iterator<Row> {
+        private Row next;
+        private boolean done;
+
+        abstract Row read() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Row row = next;
+            next = null;
+            return row;
+        }
+    }
+}
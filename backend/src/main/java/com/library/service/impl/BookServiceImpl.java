@@ -4,20 +4,79 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.library.cache.CacheNames;
+import com.library.common.CursorPage;
 import com.library.entity.Book;
+import com.library.event.BookChangedEvent;
+import com.library.exception.ErrorCode;
 import com.library.mapper.BookMapper;
+import com.library.search.BookSearchEngine;
+import com.library.search.SearchHits;
 import com.library.service.BookService;
+import com.library.util.CountCache;
+import com.library.util.CursorCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class BookServiceImpl extends ServiceImpl<BookMapper, Book> implements BookService {
 
+    private static final Logger logger = LoggerFactory.getLogger(BookServiceImpl.class);
+
+    // 与 BookMapper 中单本版本相同的条件更新，批量执行时逐条返回影响行数
+    private static final String DECREMENT_SQL = "UPDATE book SET available_quantity = available_quantity - 1 "
+            + "WHERE id = ? AND available_quantity > 0 AND deleted = 0";
+
+    private static final String ADJUST_SQL = "UPDATE book SET available_quantity = available_quantity + ? "
+            + "WHERE id = ? AND deleted = 0 AND available_quantity + ? <= total_quantity "
+            + "AND available_quantity + ? >= 0";
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private BookSearchEngine searchEngine;
+
+    @Autowired
+    private CountCache countCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
-    public IPage<Book> getBookList(int page, int size, String keyword) {
+    public IPage<Book> getBookList(int page, int size, String keyword, Long categoryId) {
+        // 检索引擎不支持按分类过滤，带分类时走 SQL，由 idx_category_id 先缩小范围再匹配关键词
+        if (keyword != null && !keyword.isEmpty() && categoryId == null
+                && searchEngine != null && searchEngine.isReady()) {
+            return searchBooks(page, size, keyword);
+        }
+
         Page<Book> pageParam = new Page<>(page, size);
         LambdaQueryWrapper<Book> wrapper = new LambdaQueryWrapper<>();
-        
+        wrapper.eq(categoryId != null, Book::getCategoryId, categoryId);
+
         if (keyword != null && !keyword.isEmpty()) {
             wrapper.and(w -> w
                 .like(Book::getTitle, keyword)
@@ -31,41 +90,164 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book> implements Bo
         return page(pageParam, wrapper);
     }
 
+    @Override
+    public CursorPage<Book> getBookListAfter(String after, int size, boolean withTotal, Long categoryId) {
+        Long afterId = CursorCodec.decodeId(after);
+        int limit = CursorPage.normalizeSize(size);
+        // 带分类时 idx_category_id 按 (category_id, id) 有序，同样不需要排序
+        List<Book> rows = lambdaQuery()
+                .eq(categoryId != null, Book::getCategoryId, categoryId)
+                .gt(afterId != null, Book::getId, afterId)
+                .orderByAsc(Book::getId)
+                .last("LIMIT " + (limit + 1))
+                .list();
+        CursorPage<Book> result = CursorPage.of(rows, limit, book -> CursorCodec.encodeId(book.getId()));
+        if (withTotal) {
+            result.setTotal(categoryId == null
+                    ? countCache.get("book", this::count)
+                    : countCache.get("book:category:" + categoryId,
+                            () -> lambdaQuery().eq(Book::getCategoryId, categoryId).count()));
+        }
+        return result;
+    }
+
+    private IPage<Book> searchBooks(int page, int size, String keyword) {
+        long offset = (long) (Math.max(page, 1) - 1) * size;
+        SearchHits hits = searchEngine.search(keyword, offset, size);
+        Page<Book> result = new Page<>(page, size, hits.getTotal());
+        if (!hits.getIds().isEmpty()) {
+            Map<Long, Book> booksById = listByIds(hits.getIds()).stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            List<Book> records = hits.getIds().stream()
+                    .map(booksById::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            result.setRecords(records);
+        }
+        return result;
+    }
+
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.BOOKS, key = "#book.id")
     public Book addBook(Book book) {
         if (book.getAvailableQuantity() == null) {
             book.setAvailableQuantity(book.getTotalQuantity());
         }
         save(book);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.ADDED, book));
         return book;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.BOOKS, key = "#book.id")
     public Book updateBook(Book book) {
+        // 锁住修改前的行，事件携带的前后差值不会被并发借还打乱
+        Book previous = lambdaQuery().eq(Book::getId, book.getId()).last("FOR UPDATE").one();
         updateById(book);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, book, previous));
         return book;
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.BOOKS, key = "#id")
     public void deleteBook(Long id) {
-        removeById(id);
+        Book book = getById(id);
+        if (book != null && removeById(id)) {
+            eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, book));
+        }
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.BOOKS, key = "#id", unless = "#result == null")
     public Book getBookById(Long id) {
         return getById(id);
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheNames.BOOKS, key = "#bookId")
     public void updateAvailableQuantity(Long bookId, int quantity) {
-        Book book = getById(bookId);
-        if (book != null) {
-            book.setAvailableQuantity(book.getAvailableQuantity() + quantity);
-            updateById(book);
+        if (baseMapper.adjustAvailableQuantity(bookId, quantity) == 0) {
+            // 可借数量已等于总数量或图书已删除，说明库存与借阅记录不一致，不能静默丢弃
+            logger.error("Available quantity adjustment rejected - bookId: {}, delta: {}", bookId, quantity);
+            throw ErrorCode.INVENTORY_CONFLICT.exception();
+        }
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.BOOKS, key = "#bookId")
+    public boolean decreaseAvailableQuantity(Long bookId) {
+        return baseMapper.decrementAvailableQuantity(bookId) > 0;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.BOOKS, key = "#bookId")
+    public boolean decreaseAvailableQuantity(Long bookId, int quantity) {
+        return baseMapper.adjustAvailableQuantity(bookId, -quantity) > 0;
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> decreaseAvailableQuantities(Collection<Long> bookIds) {
+        List<Long> ids = List.copyOf(bookIds);
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, ids, ids.size(),
+                (ps, id) -> ps.setLong(1, id))[0];
+        Set<Long> decremented = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                // 无法区分成功与否，回滚整个事务而不是让库存和借阅记录不一致
+                throw new IllegalStateException("无法确认库存扣减结果");
+            }
+            if (counts[i] > 0) {
+                decremented.add(ids.get(i));
+            }
+        }
+        evictBooks(decremented);
+        return decremented;
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> increaseAvailableQuantities(Map<Long, Integer> counts) {
+        if (counts.isEmpty()) {
+            return Set.of();
+        }
+        List<Map.Entry<Long, Integer>> entries = List.copyOf(counts.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(ADJUST_SQL, entries, entries.size(), (ps, e) -> {
+            ps.setInt(1, e.getValue());
+            ps.setLong(2, e.getKey());
+            ps.setInt(3, e.getValue());
+            ps.setInt(4, e.getValue());
+        })[0];
+        Set<Long> increased = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            Map.Entry<Long, Integer> entry = entries.get(i);
+            if (updated[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("无法确认库存归还结果");
+            }
+            if (updated[i] > 0) {
+                increased.add(entry.getKey());
+            } else {
+                logger.error("Available quantity increase rejected - bookId: {}, delta: {}",
+                        entry.getKey(), entry.getValue());
+            }
+        }
+        evictBooks(increased);
+        return increased;
+    }
+
+    private void evictBooks(Collection<Long> bookIds) {
+        Cache books = cacheManager.getCache(CacheNames.BOOKS);
+        if (books != null) {
+            bookIds.forEach(books::evict);
         }
     }
 }
@@ -4,32 +4,73 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.library.common.CursorPage;
+import com.library.dto.BatchBorrowResult;
 import com.library.dto.BorrowRecordDTO;
 import com.library.entity.Book;
 import com.library.entity.BorrowRecord;
+import com.library.event.BorrowEvent;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
+import com.library.inventory.HotInventory;
 import com.library.mapper.BorrowRecordMapper;
 import com.library.service.BookService;
 import com.library.service.BorrowService;
+import com.library.util.CountCache;
+import com.library.util.CursorCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BorrowServiceImpl extends ServiceImpl<BorrowRecordMapper, BorrowRecord> implements BorrowService {
 
     private static final Logger logger = LoggerFactory.getLogger(BorrowServiceImpl.class);
 
+    // 未归还的状态：逾期记录由 OverdueSweeper 从 BORROWED 转换而来，仍可归还和续借
+    private static final List<String> OPEN_STATUSES = List.of("BORROWED", "OVERDUE");
+
+    private static final int LOAN_DAYS = 30;
+
+    private static final int MAX_RENEW_COUNT = 3;
+
+    @Value("${library.borrow.batch-max-size:100}")
+    private int batchMaxSize;
+
     @Autowired
     private BookService bookService;
 
     @Autowired
     private BorrowRecordMapper borrowRecordMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CountCache countCache;
+
+    @Autowired
+    private HotInventory hotInventory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Override
     public IPage<BorrowRecord> getBorrowList(int page, int size, Long userId, String status) {
         Page<BorrowRecord> pageParam = new Page<>(page, size);
@@ -46,12 +87,41 @@ public class BorrowServiceImpl extends ServiceImpl<BorrowRecordMapper, BorrowRec
         return page(pageParam, wrapper);
     }
 
+    @Override
+    public CursorPage<BorrowRecord> getBorrowListAfter(String after, int size, Long userId, String status, boolean withTotal) {
+        CursorCodec.DateAndId cursor = CursorCodec.decodeDateAndId(after);
+        int limit = CursorPage.normalizeSize(size);
+        boolean hasStatus = status != null && !status.isEmpty();
+
+        LambdaQueryWrapper<BorrowRecord> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(userId != null, BorrowRecord::getUserId, userId)
+               .eq(hasStatus, BorrowRecord::getStatus, status);
+        if (cursor != null) {
+            // (borrow_date, id) < (cursor.date, cursor.id)
+            wrapper.and(w -> w.lt(BorrowRecord::getBorrowDate, cursor.date())
+                    .or(o -> o.eq(BorrowRecord::getBorrowDate, cursor.date()).lt(BorrowRecord::getId, cursor.id())));
+        }
+        wrapper.orderByDesc(BorrowRecord::getBorrowDate)
+               .orderByDesc(BorrowRecord::getId)
+               .last("LIMIT " + (limit + 1));
+
+        CursorPage<BorrowRecord> result = CursorPage.of(list(wrapper), limit,
+                r -> CursorCodec.encodeDateAndId(r.getBorrowDate(), r.getId()));
+        if (withTotal) {
+            LambdaQueryWrapper<BorrowRecord> countWrapper = new LambdaQueryWrapper<>();
+            countWrapper.eq(userId != null, BorrowRecord::getUserId, userId)
+                        .eq(hasStatus, BorrowRecord::getStatus, status);
+            result.setTotal(countCache.get("borrow:" + userId + ":" + status, () -> count(countWrapper)));
+        }
+        return result;
+    }
+
     @Override
     public IPage<BorrowRecordDTO> getCurrentUserBorrowList(int page, int size) {
         Long userId = getCurrentUserId();
         logger.info("Fetching current user borrow list - userId: {}, page: {}, size: {}", userId, page, size);
         Page<BorrowRecordDTO> pageParam = new Page<>(page, size);
-        return borrowRecordMapper.selectBorrowRecordsWithBook(pageParam, userId, "BORROWED");
+        return borrowRecordMapper.selectOpenBorrowRecordsWithBook(pageParam, userId);
     }
 
     @Override
@@ -62,36 +132,64 @@ public class BorrowServiceImpl extends ServiceImpl<BorrowRecordMapper, BorrowRec
     }
 
     @Override
-    @Transactional
-    public BorrowRecord borrowBook(Long userId, Long bookId) {
-        logger.info("Borrowing book - userId: {}, bookId: {}", userId, bookId);
-        Book book = bookService.getBookById(bookId);
-        if (book == null) {
-            throw new RuntimeException("图书不存在");
-        }
-        if (book.getAvailableQuantity() <= 0) {
-            throw new RuntimeException("图书库存不足");
+    public CursorPage<BorrowRecordDTO> getUserBorrowHistoryAfter(Long userId, String after, int size, boolean withTotal) {
+        CursorCodec.DateAndId cursor = CursorCodec.decodeDateAndId(after);
+        int limit = CursorPage.normalizeSize(size);
+        List<BorrowRecordDTO> rows = borrowRecordMapper.selectUserBorrowHistoryAfter(userId,
+                cursor != null ? cursor.date() : null, cursor != null ? cursor.id() : null, limit + 1);
+
+        CursorPage<BorrowRecordDTO> result = CursorPage.of(rows, limit,
+                r -> CursorCodec.encodeDateAndId(r.getBorrowDate(), r.getId()));
+        if (withTotal) {
+            LambdaQueryWrapper<BorrowRecord> countWrapper = new LambdaQueryWrapper<>();
+            countWrapper.eq(BorrowRecord::getUserId, userId);
+            result.setTotal(countCache.get("history:" + userId, () -> count(countWrapper)));
         }
+        return result;
+    }
 
+    /**
+     * 热门图书交给 HotInventory，按内存计数立即放行或拒绝并等待批量落库；其余图书在事务内条件扣减库存。
+     * 方法本身不开事务，等待落库期间不占用数据库连接。
+     */
+    @Override
+    public BorrowRecord borrowBook(Long userId, Long bookId) {
+        logger.info("Borrowing book - userId: {}, bookId: {}", userId, bookId);
         LambdaQueryWrapper<BorrowRecord> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(BorrowRecord::getUserId, userId)
                .eq(BorrowRecord::getBookId, bookId)
-               .eq(BorrowRecord::getStatus, "BORROWED");
+               .in(BorrowRecord::getStatus, OPEN_STATUSES);
         if (count(wrapper) > 0) {
-            throw new RuntimeException("该图书已在借阅中");
+            throw ErrorCode.BOOK_ALREADY_BORROWED.exception();
+        }
+
+        BorrowRecord record = hotInventory.borrow(userId, bookId);
+        if (record == null) {
+            record = transactionTemplate.execute(status -> borrowWithRowLock(userId, bookId));
+        }
+
+        logger.info("Book borrowed successfully - userId: {}, bookId: {}", userId, bookId);
+        return record;
+    }
+
+    private BorrowRecord borrowWithRowLock(Long userId, Long bookId) {
+        // 条件更新扣减库存，未命中时再区分图书不存在和库存不足
+        if (!bookService.decreaseAvailableQuantity(bookId)) {
+            if (bookService.getBookById(bookId) == null) {
+                throw ErrorCode.BOOK_NOT_FOUND.exception();
+            }
+            throw ErrorCode.BOOK_OUT_OF_STOCK.exception();
         }
 
         BorrowRecord record = new BorrowRecord();
         record.setUserId(userId);
         record.setBookId(bookId);
         record.setBorrowDate(LocalDateTime.now());
-        record.setDueDate(LocalDateTime.now().plusDays(30));
+        record.setDueDate(LocalDateTime.now().plusDays(LOAN_DAYS));
         record.setStatus("BORROWED");
         record.setRenewCount(0);
         save(record);
-
-        bookService.updateAvailableQuantity(bookId, -1);
-        logger.info("Book borrowed successfully - userId: {}, bookId: {}, new available quantity: {}", userId, bookId, book.getAvailableQuantity() - 1);
+        eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.BORROWED, record));
         return record;
     }
 
@@ -101,10 +199,10 @@ public class BorrowServiceImpl extends ServiceImpl<BorrowRecordMapper, BorrowRec
         logger.info("Returning book - recordId: {}", recordId);
         BorrowRecord record = getById(recordId);
         if (record == null) {
-            throw new RuntimeException("借阅记录不存在");
+            throw ErrorCode.BORROW_RECORD_NOT_FOUND.exception();
         }
-        if (!"BORROWED".equals(record.getStatus())) {
-            throw new RuntimeException("该图书已归还");
+        if (!OPEN_STATUSES.contains(record.getStatus())) {
+            throw ErrorCode.BOOK_ALREADY_RETURNED.exception();
         }
 
         record.setReturnDate(LocalDateTime.now());
@@ -112,6 +210,7 @@ public class BorrowServiceImpl extends ServiceImpl<BorrowRecordMapper, BorrowRec
         updateById(record);
 
         bookService.updateAvailableQuantity(record.getBookId(), 1);
+        eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, record));
         logger.info("Book returned successfully - recordId: {}, bookId: {}", recordId, record.getBookId());
         return record;
     }
@@ -122,22 +221,203 @@ public class BorrowServiceImpl extends ServiceImpl<BorrowRecordMapper, BorrowRec
         logger.info("Renewing book - recordId: {}", recordId);
         BorrowRecord record = getById(recordId);
         if (record == null) {
-            throw new RuntimeException("借阅记录不存在");
-        }
-        if (!"BORROWED".equals(record.getStatus())) {
-            throw new RuntimeException("该图书已归还");
+            throw ErrorCode.BORROW_RECORD_NOT_FOUND.exception();
         }
-        if (record.getRenewCount() >= 3) {
-            throw new RuntimeException("续借次数已达上限");
+        ErrorCode rejection = renewRejection(record, LocalDateTime.now());
+        if (rejection != null) {
+            throw rejection.exception();
         }
 
-        record.setDueDate(record.getDueDate().plusDays(30));
-        record.setRenewCount(record.getRenewCount() + 1);
+        applyRenewal(record);
         updateById(record);
+        eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.RENEWED, record));
         logger.info("Book renewed successfully - recordId: {}, new due date: {}", recordId, record.getDueDate());
         return record;
     }
 
+    /**
+     * 续借校验，逾期记录续借后仍未到新的应还日期才允许
+     *
+     * @return 不能续借的原因，可以续借时为 null
+     */
+    private static ErrorCode renewRejection(BorrowRecord record, LocalDateTime now) {
+        if (!OPEN_STATUSES.contains(record.getStatus())) {
+            return ErrorCode.BOOK_ALREADY_RETURNED;
+        }
+        if (record.getRenewCount() >= MAX_RENEW_COUNT) {
+            return ErrorCode.RENEW_LIMIT_REACHED;
+        }
+        if (!record.getDueDate().plusDays(LOAN_DAYS).isAfter(now)) {
+            return ErrorCode.RENEW_TOO_LATE;
+        }
+        return null;
+    }
+
+    /**
+     * 顺延应还日期，续借成功恢复为借阅中
+     */
+    private static void applyRenewal(BorrowRecord record) {
+        record.setDueDate(record.getDueDate().plusDays(LOAN_DAYS));
+        record.setStatus("BORROWED");
+        record.setRenewCount(record.getRenewCount() + 1);
+    }
+
+    @Override
+    @Transactional
+    public BatchBorrowResult borrowBooks(Long userId, List<Long> bookIds) {
+        List<Long> ids = distinctIds(bookIds);
+        Map<Long, Book> books = bookService.listByIds(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Set<Long> alreadyBorrowed = list(new LambdaQueryWrapper<BorrowRecord>()
+                .select(BorrowRecord::getBookId)
+                .eq(BorrowRecord::getUserId, userId)
+                .in(BorrowRecord::getBookId, ids)
+                .in(BorrowRecord::getStatus, OPEN_STATUSES))
+                .stream()
+                .map(BorrowRecord::getBookId)
+                .collect(Collectors.toSet());
+
+        Map<Long, ErrorCode> failures = new HashMap<>();
+        List<Long> candidates = new ArrayList<>();
+        for (Long id : ids) {
+            if (!books.containsKey(id)) {
+                failures.put(id, ErrorCode.BOOK_NOT_FOUND);
+            } else if (alreadyBorrowed.contains(id)) {
+                failures.put(id, ErrorCode.BOOK_ALREADY_BORROWED);
+            } else {
+                candidates.add(id);
+            }
+        }
+
+        Set<Long> decremented = bookService.decreaseAvailableQuantities(candidates);
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BorrowRecord> created = new HashMap<>();
+        for (Long id : candidates) {
+            if (!decremented.contains(id)) {
+                failures.put(id, ErrorCode.BOOK_OUT_OF_STOCK);
+                continue;
+            }
+            BorrowRecord record = new BorrowRecord();
+            record.setUserId(userId);
+            record.setBookId(id);
+            record.setBorrowDate(now);
+            record.setDueDate(now.plusDays(LOAN_DAYS));
+            record.setStatus("BORROWED");
+            record.setRenewCount(0);
+            created.put(id, record);
+        }
+        saveBatch(created.values());
+        created.values().forEach(r -> eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.BORROWED, r)));
+
+        logger.info("Batch borrow - userId: {}, requested: {}, borrowed: {}", userId, ids.size(), created.size());
+        return collect(ids, created, failures);
+    }
+
+    @Override
+    @Transactional
+    public BatchBorrowResult returnBooks(List<Long> recordIds) {
+        List<Long> ids = distinctIds(recordIds);
+        Map<Long, BorrowRecord> records = lockRecords(ids);
+        Map<Long, ErrorCode> failures = new HashMap<>();
+        Map<Long, BorrowRecord> returned = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : ids) {
+            BorrowRecord record = records.get(id);
+            if (record == null) {
+                failures.put(id, ErrorCode.BORROW_RECORD_NOT_FOUND);
+            } else if (!OPEN_STATUSES.contains(record.getStatus())) {
+                failures.put(id, ErrorCode.BOOK_ALREADY_RETURNED);
+            } else {
+                returned.put(id, record);
+            }
+        }
+
+        if (!returned.isEmpty()) {
+            // 先归还库存，越界的图书对应的记录保持未还并单独报告，避免记录已还而库存未加
+            Set<Long> increased = bookService.increaseAvailableQuantities(returned.values().stream()
+                    .collect(Collectors.toMap(BorrowRecord::getBookId, r -> 1, Integer::sum)));
+            returned.values().removeIf(r -> !increased.contains(r.getBookId()));
+            records.forEach((id, r) -> {
+                if (!returned.containsKey(id) && !failures.containsKey(id)) {
+                    failures.put(id, ErrorCode.INVENTORY_CONFLICT);
+                }
+            });
+        }
+        if (!returned.isEmpty()) {
+            returned.values().forEach(r -> {
+                r.setReturnDate(now);
+                r.setStatus("RETURNED");
+            });
+            borrowRecordMapper.markReturned(returned.keySet(), now);
+            returned.values().forEach(r -> eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, r)));
+        }
+
+        logger.info("Batch return - requested: {}, returned: {}", ids.size(), returned.size());
+        return collect(ids, returned, failures);
+    }
+
+    @Override
+    @Transactional
+    public BatchBorrowResult renewBooks(List<Long> recordIds) {
+        List<Long> ids = distinctIds(recordIds);
+        Map<Long, BorrowRecord> records = lockRecords(ids);
+        Map<Long, ErrorCode> failures = new HashMap<>();
+        Map<Long, BorrowRecord> renewed = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : ids) {
+            BorrowRecord record = records.get(id);
+            ErrorCode rejection = record == null ? ErrorCode.BORROW_RECORD_NOT_FOUND : renewRejection(record, now);
+            if (rejection != null) {
+                failures.put(id, rejection);
+            } else {
+                applyRenewal(record);
+                renewed.put(id, record);
+            }
+        }
+
+        updateBatchById(renewed.values());
+        renewed.values().forEach(r -> eventPublisher.publishEvent(new BorrowEvent(BorrowEvent.Type.RENEWED, r)));
+
+        logger.info("Batch renew - requested: {}, renewed: {}", ids.size(), renewed.size());
+        return collect(ids, renewed, failures);
+    }
+
+    /**
+     * 去重并校验批量大小，保持请求顺序
+     */
+    private List<Long> distinctIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "ID 列表不能为空");
+        }
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "ID 列表不能为空");
+        }
+        if (distinct.size() > batchMaxSize) {
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "单次最多处理 " + batchMaxSize + " 条");
+        }
+        return distinct;
+    }
+
+    private Map<Long, BorrowRecord> lockRecords(List<Long> ids) {
+        return borrowRecordMapper.selectByIdsForUpdate(ids).stream()
+                .collect(Collectors.toMap(BorrowRecord::getId, Function.identity()));
+    }
+
+    private static BatchBorrowResult collect(List<Long> ids, Map<Long, BorrowRecord> succeeded,
+                                             Map<Long, ErrorCode> failures) {
+        BatchBorrowResult result = new BatchBorrowResult();
+        for (Long id : ids) {
+            BorrowRecord record = succeeded.get(id);
+            if (record != null) {
+                result.success(id, record);
+            } else {
+                result.failure(id, failures.get(id).getMessage());
+            }
+        }
+        return result;
+    }
+
     @Override
     public IPage<BorrowRecord> getUserBorrowHistory(Long userId, int page, int size) {
         Page<BorrowRecord> pageParam = new Page<>(page, size);
@@ -152,6 +432,6 @@ public class BorrowServiceImpl extends ServiceImpl<BorrowRecordMapper, BorrowRec
         if (authentication != null && authentication.getPrincipal() instanceof Long) {
             return (Long) authentication.getPrincipal();
         }
-        throw new RuntimeException("无法获取当前用户信息");
+        throw ErrorCode.UNAUTHORIZED.exception();
     }
 }
@@ -0,0 +1,273 @@
+package com.library.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.library.dto.CategoryStats;
+import com.library.entity.Book;
+import com.library.entity.BookCategory;
+import com.library.event.BookChangedEvent;
+import com.library.event.BooksImportedEvent;
+import com.library.event.BorrowEvent;
+import com.library.exception.ErrorCode;
+import com.library.mapper.BookCategoryMapper;
+import com.library.mapper.BookMapper;
+import com.library.service.BookService;
+import com.library.service.CategoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 图书分类
+ * 分类表很小且极少修改，整表放在内存中的不可变快照里，写操作和定时刷新时整体替换（写时复制），读取不加锁。
+ * 分类统计同样在内存中维护：启动后第一次读取时聚合一次，之后由图书增删和借还事件增量更新，定时与数据库对账。
+ */
+@Service
+public class CategoryServiceImpl implements CategoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryServiceImpl.class);
+
+    // 统计表中未分类图书的键，ConcurrentHashMap 不接受 null 键
+    private static final long UNCATEGORIZED = 0L;
+
+    private final BookCategoryMapper categoryMapper;
+
+    private final BookMapper bookMapper;
+
+    private final BookService bookService;
+
+    private volatile Catalog catalog;
+
+    private volatile Map<Long, Rollup> rollups = new ConcurrentHashMap<>();
+
+    private volatile boolean rollupsLoaded = false;
+
+    public CategoryServiceImpl(BookCategoryMapper categoryMapper, BookMapper bookMapper, BookService bookService) {
+        this.categoryMapper = categoryMapper;
+        this.bookMapper = bookMapper;
+        this.bookService = bookService;
+    }
+
+    @Override
+    public List<BookCategory> listCategories() {
+        return catalog().categories;
+    }
+
+    @Override
+    public BookCategory getCategory(Long id) {
+        return id == null ? null : catalog().byId.get(id);
+    }
+
+    @Override
+    public BookCategory addCategory(BookCategory category) {
+        requireUniqueName(category.getCategoryName(), null);
+        categoryMapper.insert(category);
+        refreshCategories();
+        logger.info("Category added - id: {}, name: {}", category.getId(), category.getCategoryName());
+        return getCategory(category.getId());
+    }
+
+    @Override
+    public BookCategory updateCategory(BookCategory category) {
+        if (getCategory(category.getId()) == null) {
+            throw ErrorCode.CATEGORY_NOT_FOUND.exception();
+        }
+        if (category.getCategoryName() != null) {
+            requireUniqueName(category.getCategoryName(), category.getId());
+        }
+        categoryMapper.updateById(category);
+        refreshCategories();
+        logger.info("Category updated - id: {}", category.getId());
+        return getCategory(category.getId());
+    }
+
+    @Override
+    public void deleteCategory(Long id) {
+        if (getCategory(id) == null) {
+            throw ErrorCode.CATEGORY_NOT_FOUND.exception();
+        }
+        // 内存统计可能落后于其他节点和批量导入，以数据库为准
+        if (bookMapper.existsByCategoryId(id)) {
+            throw ErrorCode.CATEGORY_IN_USE.exception();
+        }
+        categoryMapper.deleteById(id);
+        refreshCategories();
+        logger.info("Category deleted - id: {}", id);
+    }
+
+    private void requireUniqueName(String name, Long exceptId) {
+        for (BookCategory existing : catalog().categories) {
+            if (existing.getCategoryName().equals(name) && !existing.getId().equals(exceptId)) {
+                throw ErrorCode.CATEGORY_NAME_EXISTS.exception();
+            }
+        }
+    }
+
+    @Override
+    public List<CategoryStats> getCategoryStats() {
+        Map<Long, Rollup> current = loadedRollups();
+        List<CategoryStats> result = new ArrayList<>();
+        for (BookCategory category : catalog().categories) {
+            result.add(toStats(category.getId(), category.getCategoryName(), current.get(category.getId())));
+        }
+        Rollup uncategorized = current.get(UNCATEGORIZED);
+        if (uncategorized != null && uncategorized.titles.get() > 0) {
+            result.add(toStats(null, "未分类", uncategorized));
+        }
+        return result;
+    }
+
+    private static CategoryStats toStats(Long id, String name, Rollup rollup) {
+        CategoryStats stats = new CategoryStats();
+        stats.setCategoryId(id);
+        stats.setCategoryName(name);
+        long titles = rollup != null ? rollup.titles.get() : 0;
+        long total = rollup != null ? rollup.totalCopies.get() : 0;
+        long available = rollup != null ? rollup.availableCopies.get() : 0;
+        stats.setTitles(titles);
+        stats.setTotalCopies(total);
+        stats.setAvailableCopies(available);
+        stats.setBorrowedCopies(total - available);
+        return stats;
+    }
+
+    private Catalog catalog() {
+        Catalog current = catalog;
+        if (current == null) {
+            refreshCategories();
+            current = catalog;
+        }
+        return current;
+    }
+
+    /**
+     * 重新读取分类表并替换快照；定时执行以获取其他节点的修改
+     */
+    @Scheduled(fixedDelayString = "${library.category.refresh-interval:60000}",
+            initialDelayString = "${library.category.refresh-interval:60000}")
+    public void refreshCategories() {
+        List<BookCategory> rows = categoryMapper.selectList(new LambdaQueryWrapper<BookCategory>()
+                .orderByAsc(BookCategory::getId));
+        Map<Long, BookCategory> byId = new LinkedHashMap<>();
+        rows.forEach(c -> byId.put(c.getId(), c));
+        catalog = new Catalog(List.copyOf(rows), Map.copyOf(byId));
+        logger.debug("Categories refreshed - count: {}", rows.size());
+    }
+
+    private Map<Long, Rollup> loadedRollups() {
+        if (!rollupsLoaded) {
+            reconcileStats();
+        }
+        return rollups;
+    }
+
+    /**
+     * 按分类 GROUP BY 重建统计，修正事件遗漏或其他节点写入造成的偏差
+     */
+    @Scheduled(fixedDelayString = "${library.category.stats-reconcile-interval:300000}",
+            initialDelayString = "${library.category.stats-reconcile-interval:300000}")
+    public void reconcileStats() {
+        Map<Long, Rollup> fresh = new ConcurrentHashMap<>();
+        for (CategoryStats row : bookMapper.selectCategoryStats()) {
+            Rollup rollup = new Rollup();
+            rollup.add(row.getTitles(), row.getTotalCopies(), row.getAvailableCopies());
+            fresh.put(key(row.getCategoryId()), rollup);
+        }
+        rollups = fresh;
+        rollupsLoaded = true;
+        logger.debug("Category stats reconciled - categories: {}", fresh.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!rollupsLoaded) {
+            return;
+        }
+        Book book = event.getBook();
+        long total = book.getTotalQuantity() != null ? book.getTotalQuantity() : 0;
+        long available = book.getAvailableQuantity() != null ? book.getAvailableQuantity() : 0;
+        switch (event.getType()) {
+            case ADDED -> rollup(book.getCategoryId()).add(1, total, available);
+            case DELETED -> rollup(book.getCategoryId()).add(-1, -total, -available);
+            case UPDATED -> applyUpdate(book, event.getPrevious());
+        }
+    }
+
+    /**
+     * 修改请求只带部分字段，未带的沿用修改前的值；从旧分类减去旧值、向新分类加上新值
+     */
+    private void applyUpdate(Book changes, Book previous) {
+        if (previous == null) {
+            return;
+        }
+        Long category = changes.getCategoryId() != null ? changes.getCategoryId() : previous.getCategoryId();
+        long oldTotal = previous.getTotalQuantity() != null ? previous.getTotalQuantity() : 0;
+        long oldAvailable = previous.getAvailableQuantity() != null ? previous.getAvailableQuantity() : 0;
+        long newTotal = changes.getTotalQuantity() != null ? changes.getTotalQuantity() : oldTotal;
+        long newAvailable = changes.getAvailableQuantity() != null ? changes.getAvailableQuantity() : oldAvailable;
+        if (key(category) == key(previous.getCategoryId())) {
+            rollup(category).add(0, newTotal - oldTotal, newAvailable - oldAvailable);
+        } else {
+            rollup(previous.getCategoryId()).add(-1, -oldTotal, -oldAvailable);
+            rollup(category).add(1, newTotal, newAvailable);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        if (rollupsLoaded) {
+            reconcileStats();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowEvent(BorrowEvent event) {
+        if (!rollupsLoaded || event.getType() == BorrowEvent.Type.RENEWED) {
+            return;
+        }
+        // 借阅事件只带图书ID，分类从图书缓存中取
+        Book book = bookService.getBookById(event.getRecord().getBookId());
+        if (book == null) {
+            return;
+        }
+        rollup(book.getCategoryId()).add(0, 0, event.getType() == BorrowEvent.Type.BORROWED ? -1 : 1);
+    }
+
+    private Rollup rollup(Long categoryId) {
+        return rollups.computeIfAbsent(key(categoryId), k -> new Rollup());
+    }
+
+    private static long key(Long categoryId) {
+        return Objects.requireNonNullElse(categoryId, UNCATEGORIZED);
+    }
+
+    /**
+     * 分类表快照，创建后不再修改
+     */
+    private record Catalog(List<BookCategory> categories, Map<Long, BookCategory> byId) {
+    }
+
+    private static final class Rollup {
+
+        private final AtomicLong titles = new AtomicLong();
+
+        private final AtomicLong totalCopies = new AtomicLong();
+
+        private final AtomicLong availableCopies = new AtomicLong();
+
+        void add(long titleDelta, long totalDelta, long availableDelta) {
+            titles.addAndGet(titleDelta);
+            totalCopies.addAndGet(totalDelta);
+            availableCopies.addAndGet(availableDelta);
+        }
+    }
+}
@@ -1,32 +1,40 @@
 package com.library.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.metadata.IPage;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.library.dto.DashboardResponse;
+import com.library.dto.StatusCount;
 import com.library.entity.Book;
 import com.library.entity.BorrowRecord;
 import com.library.entity.User;
+import com.library.event.BookChangedEvent;
+import com.library.event.BooksImportedEvent;
+import com.library.event.BorrowEvent;
+import com.library.event.UserRegisteredEvent;
 import com.library.mapper.BookMapper;
 import com.library.mapper.BorrowRecordMapper;
 import com.library.mapper.UserMapper;
-import com.library.service.BookService;
-import com.library.service.BorrowService;
 import com.library.service.DashboardService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class DashboardServiceImpl implements DashboardService {
 
     private static final Logger logger = LoggerFactory.getLogger(DashboardServiceImpl.class);
 
+    private static final String UNKNOWN_BOOK = "未知图书";
+    private static final String UNKNOWN_USER = "未知用户";
+
     @Autowired
     private BookMapper bookMapper;
 
@@ -36,6 +44,26 @@ public class DashboardServiceImpl implements DashboardService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private RecentBorrowActivity recentActivity;
+
+    // 借阅动态只需要书名和姓名，按ID缓存；借阅会作废图书对象缓存，这里单独缓存不随库存变化的书名
+    private final Cache<Long, String> bookTitles = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+    private final Cache<Long, String> userNames = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    // 内存统计快照：由借阅、归还、图书增删事件增量维护，定时与数据库对账
+    private final AtomicLong totalBooks = new AtomicLong();
+    private final AtomicLong availableBooks = new AtomicLong();
+    private final AtomicLong borrowedBooks = new AtomicLong();
+    private final AtomicLong totalUsers = new AtomicLong();
+    private volatile boolean statsLoaded = false;
+
     @Override
     public DashboardResponse getDashboardData() {
         logger.info("Fetching dashboard data");
@@ -43,67 +71,143 @@ public class DashboardServiceImpl implements DashboardService {
         DashboardResponse response = new DashboardResponse();
 
         // 统计数据
+        if (!statsLoaded) {
+            reconcileStats();
+        }
         DashboardResponse.DashboardStats stats = new DashboardResponse.DashboardStats();
+        stats.setTotalBooks((int) totalBooks.get());
+        stats.setAvailableBooks((int) availableBooks.get());
+        stats.setBorrowedBooks((int) borrowedBooks.get());
+        stats.setTotalUsers((int) totalUsers.get());
 
-        // 总图书数
-        Long totalBooksCount = bookMapper.selectCount(null);
-        stats.setTotalBooks(totalBooksCount != null ? totalBooksCount.intValue() : 0);
-        logger.debug("Total books count: {}", stats.getTotalBooks());
+        response.setStats(stats);
+
+        // 最新借阅记录，直接读取内存环形缓冲区
+        List<DashboardResponse.BorrowRecordDetail> recordDetails = recentActivity.snapshot();
 
-        // 可借阅数（所有图书的availableQuantity之和）
-        List<Book> allBooks = bookMapper.selectList(null);
-        int availableBooksCount = allBooks.stream()
-                .mapToInt(Book::getAvailableQuantity)
+        response.setRecentRecords(recordDetails);
+        logger.info("Dashboard data fetched successfully");
+        return response;
+    }
+
+    /**
+     * 定时用 SQL 聚合与数据库对账，修正事件遗漏或其他节点写入造成的偏差
+     */
+    @Scheduled(fixedDelayString = "${library.dashboard.stats-reconcile-interval:300000}",
+            initialDelayString = "${library.dashboard.stats-reconcile-interval:300000}")
+    public void reconcileStats() {
+        refreshInventoryStats();
+
+        long borrowed = borrowRecordMapper.selectStatusCounts().stream()
+                .filter(c -> "BORROWED".equals(c.getStatus()) || "OVERDUE".equals(c.getStatus()))
+                .mapToLong(StatusCount::getTotal)
                 .sum();
-        stats.setAvailableBooks(availableBooksCount);
-        logger.debug("Available books count: {}", stats.getAvailableBooks());
+        borrowedBooks.set(borrowed);
 
-        // 借阅中（status='BORROWED'的记录数）
-        LambdaQueryWrapper<BorrowRecord> borrowedWrapper = new LambdaQueryWrapper<>();
-        borrowedWrapper.eq(BorrowRecord::getStatus, "BORROWED");
-        Long borrowedCount = borrowRecordMapper.selectCount(borrowedWrapper);
-        stats.setBorrowedBooks(borrowedCount != null ? borrowedCount.intValue() : 0);
-        logger.debug("Borrowed books count: {}", stats.getBorrowedBooks());
+        Long users = userMapper.selectCount(null);
+        totalUsers.set(users != null ? users : 0);
 
-        // 用户总数
-        Long totalUsersCount = userMapper.selectCount(null);
-        stats.setTotalUsers(totalUsersCount != null ? totalUsersCount.intValue() : 0);
-        logger.debug("Total users count: {}", stats.getTotalUsers());
+        recentActivity.reset(borrowRecordMapper.selectRecentRecordDetails(recentActivity.capacity()));
 
-        response.setStats(stats);
+        statsLoaded = true;
+        logger.debug("Dashboard stats reconciled - books: {}, available: {}, borrowed: {}, users: {}",
+                totalBooks.get(), availableBooks.get(), borrowedBooks.get(), totalUsers.get());
+    }
 
-        // 最新借阅记录（最新的5条）
-        Page<BorrowRecord> pageParam = new Page<>(1, 5);
-        LambdaQueryWrapper<BorrowRecord> recordWrapper = new LambdaQueryWrapper<>();
-        recordWrapper.orderByDesc(BorrowRecord::getBorrowDate);
-        IPage<BorrowRecord> recordPage = borrowRecordMapper.selectPage(pageParam, recordWrapper);
+    private void refreshInventoryStats() {
+        DashboardResponse.DashboardStats inventory = bookMapper.selectInventoryStats();
+        totalBooks.set(inventory != null && inventory.getTotalBooks() != null ? inventory.getTotalBooks() : 0);
+        availableBooks.set(inventory != null && inventory.getAvailableBooks() != null ? inventory.getAvailableBooks() : 0);
+    }
 
-        List<DashboardResponse.BorrowRecordDetail> recordDetails = recordPage.getRecords().stream()
-                .map(record -> {
-                    DashboardResponse.BorrowRecordDetail detail = new DashboardResponse.BorrowRecordDetail();
-                    detail.setId(record.getId());
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        bookTitles.invalidate(event.getBook().getId());
+        if (!statsLoaded) {
+            return;
+        }
+        Book book = event.getBook();
+        int available = book.getAvailableQuantity() != null ? book.getAvailableQuantity() : 0;
+        switch (event.getType()) {
+            case ADDED -> {
+                totalBooks.incrementAndGet();
+                availableBooks.addAndGet(available);
+            }
+            case DELETED -> {
+                totalBooks.decrementAndGet();
+                availableBooks.addAndGet(-available);
+            }
+            // 修改请求未带可借数量时沿用修改前的值；previous 为空说明图书不存在，没有改动
+            case UPDATED -> {
+                Book previous = event.getPrevious();
+                if (previous != null && book.getAvailableQuantity() != null) {
+                    int before = previous.getAvailableQuantity() != null ? previous.getAvailableQuantity() : 0;
+                    availableBooks.addAndGet(available - before);
+                }
+            }
+        }
+    }
 
-                    // 获取图书信息
-                    Book book = bookMapper.selectById(record.getBookId());
-                    detail.setBookTitle(book != null ? book.getTitle() : "未知图书");
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        bookTitles.invalidateAll();
+        if (statsLoaded) {
+            refreshInventoryStats();
+        }
+    }
 
-                    // 获取用户信息
-                    User user = userMapper.selectById(record.getUserId());
-                    detail.setUsername(user != null ? user.getRealName() : "未知用户");
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBorrowEvent(BorrowEvent event) {
+        if (!statsLoaded) {
+            return;
+        }
+        switch (event.getType()) {
+            case BORROWED -> {
+                availableBooks.decrementAndGet();
+                borrowedBooks.incrementAndGet();
+                recentActivity.push(toDetail(event.getRecord()));
+            }
+            case RETURNED -> {
+                availableBooks.incrementAndGet();
+                borrowedBooks.decrementAndGet();
+                recentActivity.updateStatus(event.getRecord().getId(), event.getRecord().getStatus());
+            }
+            case RENEWED -> recentActivity.updateStatus(event.getRecord().getId(), event.getRecord().getStatus());
+        }
+    }
 
-                    // 格式化日期
-                    detail.setBorrowDate(record.getBorrowDate() != null
-                            ? record.getBorrowDate().toLocalDate().toString()
-                            : "");
+    /**
+     * 由事件中的借阅记录拼出动态条目，借阅提交后的监听里不再逐条关联查询；
+     * 字段缺省值与 selectRecentRecordDetails 一致
+     */
+    private DashboardResponse.BorrowRecordDetail toDetail(BorrowRecord record) {
+        DashboardResponse.BorrowRecordDetail detail = new DashboardResponse.BorrowRecordDetail();
+        detail.setId(record.getId());
+        detail.setBookTitle(bookTitles.get(record.getBookId(), this::loadBookTitle));
+        detail.setUsername(userNames.get(record.getUserId(), this::loadUserName));
+        detail.setBorrowDate(record.getBorrowDate() != null ? record.getBorrowDate().toLocalDate().toString() : null);
+        detail.setStatus(record.getStatus());
+        return detail;
+    }
 
-                    detail.setStatus(record.getStatus());
+    private String loadBookTitle(Long bookId) {
+        Book book = bookMapper.selectOne(new LambdaQueryWrapper<Book>()
+                .select(Book::getId, Book::getTitle)
+                .eq(Book::getId, bookId));
+        return book != null && book.getTitle() != null ? book.getTitle() : UNKNOWN_BOOK;
+    }
 
-                    return detail;
-                })
-                .collect(Collectors.toList());
+    private String loadUserName(Long userId) {
+        User user = userMapper.selectOne(new LambdaQueryWrapper<User>()
+                .select(User::getId, User::getRealName)
+                .eq(User::getId, userId));
+        return user != null && user.getRealName() != null ? user.getRealName() : UNKNOWN_USER;
+    }
 
-        response.setRecentRecords(recordDetails);
-        logger.info("Dashboard data fetched successfully");
-        return response;
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        if (statsLoaded) {
+            totalUsers.incrementAndGet();
+        }
     }
 }
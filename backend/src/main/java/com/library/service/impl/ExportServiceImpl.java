@@ -0,0 +1,48 @@
+package com.library.service.impl;
+
+import com.library.dto.BorrowRecordDTO;
+import com.library.entity.Book;
+import com.library.export.ExportColumns;
+import com.library.export.ExportFormat;
+import com.library.export.RowStreamWriter;
+import com.library.mapper.BookMapper;
+import com.library.mapper.BorrowRecordMapper;
+import com.library.service.ExportService;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 导出服务：MyBatis Cursor 逐行读取，边读边写响应流
+ * 游标依赖 SqlSession，必须在事务内打开并消费完
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private BorrowRecordMapper borrowRecordMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(ExportFormat format, OutputStream out) throws IOException {
+        try (Cursor<Book> books = bookMapper.streamAll()) {
+            return RowStreamWriter.write(books, ExportColumns.BOOKS, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBorrowRecords(Long userId, String status, ExportFormat format, OutputStream out)
+            throws IOException {
+        try (Cursor<BorrowRecordDTO> records = borrowRecordMapper.streamBorrowRecords(userId, status)) {
+            return RowStreamWriter.write(records, ExportColumns.BORROW_RECORDS, format, out);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.library.service.impl;
+
+import com.library.mapper.BorrowRecordMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * 逾期扫描：定时把超过应还日期的 BORROWED 记录批量改为 OVERDUE
+ * 多节点部署时用 MySQL GET_LOCK 选出一个节点执行；每批 UPDATE ... LIMIT 自动提交，行锁持有时间短，
+ * 单次运行受 max-duration 限制，剩余记录留给下一轮
+ */
+@Component
+@ConditionalOnProperty(name = "library.overdue.enabled", havingValue = "true", matchIfMissing = true)
+public class OverdueSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueSweeper.class);
+
+    private static final String LOCK_NAME = "library:overdue-sweep";
+
+    private final BorrowRecordMapper borrowRecordMapper;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int chunkSize;
+
+    private final long maxDurationMillis;
+
+    public OverdueSweeper(BorrowRecordMapper borrowRecordMapper,
+                          JdbcTemplate jdbcTemplate,
+                          @Value("${library.overdue.chunk-size:5000}") int chunkSize,
+                          @Value("${library.overdue.max-duration:30000}") long maxDurationMillis) {
+        this.borrowRecordMapper = borrowRecordMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.maxDurationMillis = maxDurationMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${library.overdue.sweep-interval:60000}",
+            initialDelayString = "${library.overdue.initial-delay:30000}")
+    public void sweep() {
+        try {
+            // 锁与持有它的连接绑定，整个扫描期间占用这条连接，结束后在同一连接上释放
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                if (!acquire(connection)) {
+                    logger.debug("Overdue sweep skipped, another node holds the lock");
+                    return null;
+                }
+                try {
+                    sweepChunks();
+                } finally {
+                    release(connection);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.error("Overdue sweep failed", e);
+        }
+    }
+
+    /**
+     * 分批更新直到没有剩余或超出时间预算
+     *
+     * @return 本轮标记为逾期的记录数
+     */
+    long sweepChunks() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        int updated;
+        do {
+            updated = borrowRecordMapper.markOverdue(now, chunkSize);
+            total += updated;
+        } while (updated == chunkSize && System.currentTimeMillis() - start < maxDurationMillis);
+
+        if (total > 0) {
+            logger.info("Overdue sweep marked {} records in {} ms{}", total, System.currentTimeMillis() - start,
+                    updated == chunkSize ? ", time budget reached, continuing next run" : "");
+        }
+        return total;
+    }
+
+    private static boolean acquire(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void release(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.execute();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.library.service.impl;
+
+import com.library.dto.DashboardResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 最近借阅动态环形缓冲区
+ * 固定容量，新记录覆盖最旧记录，读取时按时间倒序返回
+ */
+@Component
+public class RecentBorrowActivity {
+
+    private final DashboardResponse.BorrowRecordDetail[] buffer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int head = 0;
+    private int size = 0;
+
+    public RecentBorrowActivity(@Value("${library.dashboard.recent-records-size:5}") int capacity) {
+        this.buffer = new DashboardResponse.BorrowRecordDetail[Math.max(1, capacity)];
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public void push(DashboardResponse.BorrowRecordDetail detail) {
+        lock.lock();
+        try {
+            buffer[head] = detail;
+            head = (head + 1) % buffer.length;
+            size = Math.min(size + 1, buffer.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 更新缓冲区内记录的状态，记录已被挤出时忽略
+     */
+    public void updateStatus(Long recordId, String status) {
+        lock.lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                int index = Math.floorMod(head - 1 - i, buffer.length);
+                DashboardResponse.BorrowRecordDetail current = buffer[index];
+                if (current.getId().equals(recordId)) {
+                    DashboardResponse.BorrowRecordDetail updated = new DashboardResponse.BorrowRecordDetail();
+                    updated.setId(current.getId());
+                    updated.setBookTitle(current.getBookTitle());
+                    updated.setUsername(current.getUsername());
+                    updated.setBorrowDate(current.getBorrowDate());
+                    updated.setStatus(status);
+                    buffer[index] = updated;
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 用数据库结果整体替换缓冲区内容，records 按时间倒序
+     */
+    public void reset(List<DashboardResponse.BorrowRecordDetail> records) {
+        lock.lock();
+        try {
+            Arrays.fill(buffer, null);
+            head = 0;
+            size = 0;
+            for (int i = Math.min(records.size(), buffer.length) - 1; i >= 0; i--) {
+                push(records.get(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<DashboardResponse.BorrowRecordDetail> snapshot() {
+        lock.lock();
+        try {
+            List<DashboardResponse.BorrowRecordDetail> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(buffer[Math.floorMod(head - 1 - i, buffer.length)]);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
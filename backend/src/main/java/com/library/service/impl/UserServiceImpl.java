@@ -1,12 +1,21 @@
 package com.library.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.library.cache.CacheNames;
 import com.library.entity.User;
+import com.library.event.UserRegisteredEvent;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
 import com.library.mapper.UserMapper;
+import com.library.security.PasswordVerifier;
+import com.library.security.TokenRevocationStore;
 import com.library.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,155 +24,154 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerifier passwordVerifier;
 
-    public UserServiceImpl(PasswordEncoder passwordEncoder) {
-        this.passwordEncoder = passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TokenRevocationStore revocationStore;
+
+    // 经代理调用自身，使登录时的用户查询走缓存
+    private final UserService self;
+
+    public UserServiceImpl(PasswordVerifier passwordVerifier, ApplicationEventPublisher eventPublisher,
+                           TokenRevocationStore revocationStore, @Lazy UserService self) {
+        this.passwordVerifier = passwordVerifier;
+        this.eventPublisher = eventPublisher;
+        this.revocationStore = revocationStore;
+        this.self = self;
     }
 
     @Override
     public User login(String username, String password) {
-        logger.info("========================================");
-        logger.info("Login process started for username: {}", username);
-        logger.info("========================================");
-
         if (username == null || username.trim().isEmpty()) {
-            logger.warn("Username is null or empty");
-            throw new RuntimeException("用户名不能为空");
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "用户名不能为空");
         }
 
         if (password == null || password.trim().isEmpty()) {
-            logger.warn("Password is null or empty");
-            throw new RuntimeException("密码不能为空");
+            throw new BusinessException(ErrorCode.BAD_REQUEST, "密码不能为空");
         }
 
-        logger.info("Step 1: Querying user from database...");
-        User user = getUserByUsername(username);
-
+        User user = self.getUserByUsername(username);
         if (user == null) {
-            logger.warn("========================================");
-            logger.warn("Step 1 FAILED: User not found in database - {}", username);
-            logger.warn("========================================");
-            throw new RuntimeException("用户不存在");
+            logger.warn("Login failed - user not found: {}", username);
+            throw ErrorCode.USER_NOT_FOUND.exception();
         }
 
-        logger.info("Step 1 SUCCESS: User found");
-        logger.info("User details: ID={}, Username={}, Role={}, Status={}", 
-            user.getId(), user.getUsername(), user.getRole(), user.getStatus());
-
-        logger.info("========================================");
-        logger.info("Step 2: Verifying password...");
-
-        try {
-            boolean passwordMatch = passwordEncoder.matches(password, user.getPassword());
-            logger.info("Password match result: {}", passwordMatch);
-
-            if (!passwordMatch) {
-                logger.warn("Step 2 FAILED: Password does not match");
-                throw new RuntimeException("密码错误");
-            }
-
-            logger.info("Step 2 SUCCESS: Password verified");
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            logger.error("Step 2 ERROR: Password verification failed", e);
-            throw new RuntimeException("密码验证失败: " + e.getMessage());
+        if (!passwordVerifier.matches(username, password, user.getPassword())) {
+            logger.warn("Login failed - bad credentials: {}", username);
+            throw ErrorCode.PASSWORD_INCORRECT.exception();
         }
 
-        logger.info("========================================");
-        logger.info("Step 3: Checking user status...");
-
         if (user.getStatus() == null || user.getStatus() == 0) {
-            logger.warn("Step 3 FAILED: Account is disabled or status is null");
-            throw new RuntimeException("账户已被禁用");
+            logger.warn("Login failed - account disabled: {}", username);
+            throw ErrorCode.USER_DISABLED.exception();
         }
 
-        logger.info("Step 3 SUCCESS: Account is active");
-        logger.info("========================================");
-        logger.info("LOGIN SUCCESS: User {} successfully logged in", username);
-        logger.info("========================================");
+        if (passwordVerifier.needsRehash(user.getPassword())) {
+            rehash(user, password);
+        }
 
+        logger.debug("Login success - userId: {}, role: {}", user.getId(), user.getRole());
         return user;
     }
 
+    /**
+     * 哈希算法或成本调整后，在哈希线程池上用本次登录的明文重算并回写，不阻塞登录响应
+     */
+    private void rehash(User user, String password) {
+        String oldHash = user.getPassword();
+        passwordVerifier.encodeAsync(password).whenComplete((newHash, e) -> {
+            if (e != null) {
+                logger.debug("Password rehash skipped - userId: {}, reason: {}", user.getId(), e.getMessage());
+                return;
+            }
+            User target = new User();
+            target.setId(user.getId());
+            target.setUsername(user.getUsername());
+            target.setPassword(oldHash);
+            // 回调里的异常不会传给任何调用方，必须在这里记录，否则每次登录都静默重算失败
+            try {
+                if (self.updatePasswordHash(target, newHash)) {
+                    logger.info("Password rehashed - userId: {}", user.getId());
+                }
+            } catch (RuntimeException ex) {
+                logger.warn("Password rehash failed - userId: {}", user.getId(), ex);
+            }
+        });
+    }
+
     @Override
-    @Transactional
-    public User register(User user) {
-        logger.info("========================================");
-        logger.info("Registration started for username: {}", user.getUsername());
-        logger.info("========================================");
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#user.username")
+    public boolean updatePasswordHash(User user, String newHash) {
+        // 以旧哈希为条件，并发登录或期间改过密码时不会覆盖
+        return lambdaUpdate()
+                .set(User::getPassword, newHash)
+                .eq(User::getId, user.getId())
+                .eq(User::getPassword, user.getPassword())
+                .update();
+    }
 
-        // Step 1: Check if user exists
-        if (getUserByUsername(user.getUsername()) != null) {
-            throw new RuntimeException("用户名已存在");
+    @Override
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#user.username")
+    public void updateStatus(User user, Integer status) {
+        lambdaUpdate()
+                .set(User::getStatus, status)
+                .eq(User::getId, user.getId())
+                .update();
+        // 禁用立即生效：已签发的访问令牌和刷新令牌全部吊销
+        if (status == 0) {
+            revocationStore.revokeAll(user.getId());
         }
+        logger.info("User status updated - userId: {}, status: {}", user.getId(), status);
+    }
 
-        // Step 2: Encode password
-        logger.info("Step 2: Encoding password...");
-        try {
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
-            logger.info("Step 2 SUCCESS: Password encoded");
-        } catch (Exception e) {
-            logger.error("Step 2 ERROR: Password encoding failed", e);
-            throw new RuntimeException("密码加密失败: " + e.getMessage());
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.USERS, key = "#user.username")
+    public User register(User user) {
+        if (getUserByUsername(user.getUsername()) != null) {
+            throw ErrorCode.USERNAME_EXISTS.exception();
         }
 
-        // Step 3: Setting user properties
-        logger.info("Step 3: Setting user properties...");
+        user.setPassword(passwordVerifier.encode(user.getPassword()));
         user.setStatus(1);
         if (user.getRole() == null) {
             user.setRole("USER");
         }
-        logger.info("User properties set: Status={}, Role={}", user.getStatus(), user.getRole());
 
-        // Step 4: Saving user to database
-        logger.info("Step 4: Saving user to database...");
+        boolean saved;
         try {
-            boolean saved = save(user);
-            if (!saved) {
-                logger.error("Step 4 ERROR: User save returned false");
-                throw new RuntimeException("保存用户失败");
-            }
-            logger.info("Step 4 SUCCESS: User saved to database. Generated ID: {}", user.getId());
+            saved = save(user);
         } catch (Exception e) {
-            logger.error("Step 4 ERROR: Failed to save user", e);
-            throw new RuntimeException("保存用户失败: " + e.getMessage());
+            logger.error("Failed to save user: {}", user.getUsername(), e);
+            throw ErrorCode.USER_SAVE_FAILED.exception();
+        }
+        if (!saved) {
+            logger.error("Failed to save user: {} - no row inserted", user.getUsername());
+            throw ErrorCode.USER_SAVE_FAILED.exception();
         }
 
-        logger.info("========================================");
-        logger.info("REGISTRATION SUCCESS: User {} registered successfully", user.getUsername());
-        logger.info("========================================");
-
+        eventPublisher.publishEvent(new UserRegisteredEvent(user));
+        logger.info("User registered - userId: {}, username: {}", user.getId(), user.getUsername());
         return user;
     }
 
     @Override
+    @Cacheable(cacheNames = CacheNames.USERS, key = "#username", unless = "#result == null")
     public User getUserByUsername(String username) {
-        logger.info("getUserByUsername - Querying: {}", username);
-
         try {
-            User user = lambdaQuery()
+            return lambdaQuery()
                     .eq(User::getUsername, username)
                     .one();
-
-            if (user == null) {
-                logger.info("User not found: {}", username);
-                return null;
-            }
-
-            logger.info("User found: ID={}, Username={}", user.getId(), user.getUsername());
-            return user;
-
         } catch (Exception e) {
-            logger.error("getUserByUsername - Error querying user: {}", username, e);
-            
             String message = e.getMessage();
             if (message != null && (message.contains("Expected one result") || message.contains("查不到") || message.contains("not found"))) {
+                logger.warn("getUserByUsername - ambiguous result for: {}", username);
                 return null;
             }
 
-            throw new RuntimeException("查询用户失败: " + (message != null ? message : "数据库异常"), e);
+            logger.error("getUserByUsername - Error querying user: {}", username, e);
+            throw ErrorCode.USER_QUERY_FAILED.exception();
         }
     }
 }
@@ -0,0 +1,46 @@
+package com.library.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 分页总数短时缓存
+ * 游标分页按需返回总数时，同一筛选条件在 TTL 内只执行一次 COUNT(*)
+ */
+@Component
+public class CountCache {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    private final long ttlMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public CountCache(@Value("${library.pagination.count-cache-ttl:30000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public long get(String key, Supplier<Long> counter) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.count;
+        }
+        long count = counter.get();
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.values().removeIf(e -> e.expiresAt <= now);
+            if (entries.size() >= MAX_ENTRIES) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry(count, now + ttlMillis));
+        return count;
+    }
+
+    private record Entry(long count, long expiresAt) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.library.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 逐条读取 CSV 记录（RFC 4180：双引号包裹、"" 转义、引号内可含逗号和换行）
+ * 只持有当前一条记录，适合流式读取大文件
+ */
+public class CsvReader {
+
+    private final BufferedReader reader;
+
+    private long lineNumber;
+
+    /**
+     * 当前记录起始行号（从 1 开始）
+     */
+    private long recordLine;
+
+    public CsvReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * 读取下一条记录，文件结束返回 null，空行跳过
+     *
+     * @throws IllegalArgumentException 引号未闭合
+     */
+    public List<String> next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isEmpty());
+        recordLine = lineNumber;
+        if (recordLine == 1 && line.charAt(0) == '\uFEFF') {
+            line = line.substring(1);
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                // 引号内的换行属于字段内容
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IllegalArgumentException("第" + recordLine + "行: 引号未闭合");
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+}
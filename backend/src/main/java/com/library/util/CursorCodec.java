@@ -0,0 +1,79 @@
+package com.library.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 分页游标编解码
+ * 游标对客户端不透明，内容为排序键经 Base64URL 编码：(id) 或 (borrow_date, id)
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public static String encodeId(Long id) {
+        return encode(String.valueOf(id));
+    }
+
+    public static String encodeDateAndId(LocalDateTime date, Long id) {
+        return encode(date + SEPARATOR + id);
+    }
+
+    /**
+     * @return 游标中的 ID，游标为空时返回 null
+     */
+    public static Long decodeId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * @return 游标中的日期和 ID，游标为空时返回 null
+     */
+    public static DateAndId decodeDateAndId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String value = decode(cursor);
+        int index = value.indexOf(SEPARATOR);
+        if (index < 0) {
+            throw invalid();
+        }
+        try {
+            return new DateAndId(LocalDateTime.parse(value.substring(0, index)),
+                    Long.parseLong(value.substring(index + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    public record DateAndId(LocalDateTime date, Long id) {
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("无效的分页游标");
+    }
+}
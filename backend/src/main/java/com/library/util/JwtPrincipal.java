@@ -0,0 +1,54 @@
+package com.library.util;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * 验签通过的 JWT 解析结果，一次解析得到过滤器需要的全部字段
+ */
+@Value
+public class JwtPrincipal {
+
+    public static final String ACCESS = "access";
+
+    public static final String REFRESH = "refresh";
+
+    String username;
+
+    Long userId;
+
+    String role;
+
+    /**
+     * 令牌 ID（jti），吊销时按它登记；升级前签发的令牌没有该字段
+     */
+    UUID tokenId;
+
+    /**
+     * access 或 refresh，升级前签发的令牌按 access 处理
+     */
+    String type;
+
+    /**
+     * 签发时间（毫秒时间戳，JWT 只精确到秒）
+     */
+    long issuedAt;
+
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    long expiresAt;
+
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+
+    public boolean isAccessToken() {
+        return ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return REFRESH.equals(type);
+    }
+}
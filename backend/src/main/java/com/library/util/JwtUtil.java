@@ -1,82 +1,203 @@
 package com.library.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final String TOKEN_TYPE_CLAIM = "token_type";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private final Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private final Long refreshExpiration;
+
+    // 密钥和解析器线程安全，启动时构建一次
+    private final SecretKey signingKey;
+
+    private final JwtParser parser;
+
+    /**
+     * 已验签令牌缓存，键为令牌的 SHA-256 摘要，条目在令牌过期时失效
+     */
+    private final Cache<ByteBuffer, JwtPrincipal> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") Long expiration,
+                   @Value("${jwt.refresh-expiration:604800000}") Long refreshExpiration,
+                   @Value("${jwt.cache.max-size:10000}") long cacheMaxSize) {
+        this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = cacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(cacheMaxSize)
+                        .expireAfter(new UntilTokenExpiry())
+                        .build()
+                : null;
     }
 
+    /**
+     * 签发访问令牌，有效期 jwt.expiration
+     */
     public String generateToken(String username, Long userId, String role) {
+        return createToken(username, userId, role, JwtPrincipal.ACCESS, expiration);
+    }
+
+    /**
+     * 签发刷新令牌，有效期 jwt.refresh-expiration，只能用于换取新的访问令牌
+     */
+    public String generateRefreshToken(String username, Long userId, String role) {
+        return createToken(username, userId, role, JwtPrincipal.REFRESH, refreshExpiration);
+    }
+
+    public Long getExpiration() {
+        return expiration;
+    }
+
+    public Long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    private String createToken(String subject, Long userId, String role, String type, long ttl) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("role", role);
-        return createToken(claims, username);
-    }
-
-    private String createToken(Map<String, Object> claims, String subject) {
+        claims.put(TOKEN_TYPE_CLAIM, type);
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration);
+        Date expiryDate = new Date(now.getTime() + ttl);
 
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * 验签并解析令牌，命中缓存时跳过验签
+     *
+     * @throws io.jsonwebtoken.JwtException 签名无效、格式错误或已过期
+     */
+    public JwtPrincipal verify(String token) {
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+        ByteBuffer key = digest(token);
+        JwtPrincipal cached = verifiedTokens.getIfPresent(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && !cached.isExpired(now)) {
+            return cached;
+        }
+        JwtPrincipal principal = parse(token);
+        verifiedTokens.put(key, principal);
+        return principal;
+    }
+
+    /**
+     * 不经缓存的单次解析
+     */
+    public JwtPrincipal parse(String token) {
+        Claims claims = getClaimsFromToken(token);
+        Date expiresAt = claims.getExpiration();
+        if (expiresAt == null) {
+            throw new ExpiredJwtException(null, claims, "JWT has no expiration");
+        }
+        String type = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        Date issuedAt = claims.getIssuedAt();
+        return new JwtPrincipal(claims.getSubject(), claims.get("userId", Long.class),
+                claims.get("role", String.class),
+                claims.getId() != null ? parseTokenId(claims) : null,
+                type != null ? type : JwtPrincipal.ACCESS,
+                issuedAt != null ? issuedAt.getTime() : 0L,
+                expiresAt.getTime());
+    }
+
+    private static UUID parseTokenId(Claims claims) {
+        try {
+            return UUID.fromString(claims.getId());
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("JWT id is not a UUID");
+        }
+    }
+
     public String getUsernameFromToken(String token) {
-        return getClaimsFromToken(token).getSubject();
+        return parse(token).getUsername();
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("userId", Long.class);
+        return parse(token).getUserId();
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("role", String.class);
+        return parse(token).getRole();
     }
 
     public Date getExpirationDateFromToken(String token) {
-        return getClaimsFromToken(token).getExpiration();
+        return new Date(parse(token).getExpiresAt());
     }
 
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+        return parse(token).isExpired(System.currentTimeMillis());
     }
 
     public Boolean validateToken(String token, String username) {
-        final String tokenUsername = getUsernameFromToken(token);
-        return (tokenUsername.equals(username) && !isTokenExpired(token));
+        JwtPrincipal principal = parse(token);
+        return principal.getUsername().equals(username) && !principal.isExpired(System.currentTimeMillis());
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, JwtPrincipal value, long currentTime) {
+            long remainingMillis = value.getExpiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
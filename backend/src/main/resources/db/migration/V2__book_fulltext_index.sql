@@ -0,0 +1,10 @@
+-- 书名/作者全文索引，供 library.search.engine=mysql 使用
+-- 旧版 DatabaseInitializer 或 docker 初始化脚本可能已建过该索引，存在时跳过
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE `book` ADD FULLTEXT INDEX ft_title_author (`title`, `author`) WITH PARSER ngram',
+        'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'book' AND index_name = 'ft_title_author');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,10 @@
+-- 用户借阅历史游标分页 (user_id, borrow_date, id)
+-- 旧版 DatabaseInitializer 或 docker 初始化脚本可能已建过该索引，存在时跳过
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE `borrow_record` ADD INDEX idx_user_borrow_date (`user_id`, `borrow_date`)',
+        'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'borrow_record' AND index_name = 'idx_user_borrow_date');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,10 @@
+-- 逾期扫描按状态取到期时间范围 (status, due_date)
+-- 旧版 DatabaseInitializer 或 docker 初始化脚本可能已建过该索引，存在时跳过
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE `borrow_record` ADD INDEX idx_status_due_date (`status`, `due_date`)',
+        'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'borrow_record' AND index_name = 'idx_status_due_date');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
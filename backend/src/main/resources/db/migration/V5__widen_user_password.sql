@@ -0,0 +1,2 @@
+-- {pbkdf2} 哈希为 104 个字符，超出原 VARCHAR(100)，注册和登录重算都会失败
+ALTER TABLE `sys_user` MODIFY `password` VARCHAR(255) NOT NULL COMMENT '密码';
@@ -1,3 +1,6 @@
+-- 手工或 docker 初始化用的完整建库脚本
+-- 应用启动时由 Flyway 执行 db/migration 下的版本脚本，修改表结构请新增迁移并同步本文件
+
 CREATE DATABASE IF NOT EXISTS library_management CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
 
 USE library_management;
@@ -5,7 +8,7 @@ USE library_management;
 CREATE TABLE IF NOT EXISTS `sys_user` (
     `id` BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '用户ID',
     `username` VARCHAR(50) NOT NULL UNIQUE COMMENT '用户名',
-    `password` VARCHAR(100) NOT NULL COMMENT '密码',
+    `password` VARCHAR(255) NOT NULL COMMENT '密码',
     `real_name` VARCHAR(50) NOT NULL COMMENT '真实姓名',
     `phone` VARCHAR(20) COMMENT '手机号',
     `email` VARCHAR(100) COMMENT '邮箱',
@@ -52,6 +55,9 @@ CREATE TABLE IF NOT EXISTS `book` (
     FOREIGN KEY (`category_id`) REFERENCES `book_category`(`id`) ON DELETE SET NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='图书表';
 
+-- 书名/作者全文索引，供 library.search.engine=mysql 使用
+ALTER TABLE `book` ADD FULLTEXT INDEX ft_title_author (`title`, `author`) WITH PARSER ngram;
+
 CREATE TABLE IF NOT EXISTS `borrow_record` (
     `id` BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '借阅记录ID',
     `user_id` BIGINT NOT NULL COMMENT '用户ID',
@@ -72,6 +78,12 @@ CREATE TABLE IF NOT EXISTS `borrow_record` (
     FOREIGN KEY (`book_id`) REFERENCES `book`(`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='借阅记录表';
 
+-- 用户借阅历史游标分页 (user_id, borrow_date, id)
+ALTER TABLE `borrow_record` ADD INDEX idx_user_borrow_date (`user_id`, `borrow_date`);
+
+-- 逾期扫描按状态取到期时间范围 (status, due_date)
+ALTER TABLE `borrow_record` ADD INDEX idx_status_due_date (`status`, `due_date`);
+
 CREATE TABLE IF NOT EXISTS `operation_log` (
     `id` BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '日志ID',
     `user_id` BIGINT COMMENT '操作用户ID',
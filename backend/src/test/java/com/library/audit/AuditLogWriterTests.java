@@ -0,0 +1,102 @@
+package com.library.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 审计写入器单元测试，不启动后台线程，直接调用 flush
+ */
+class AuditLogWriterTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AuditLogWriter writer(int capacity, AuditDropPolicy policy) {
+        return new AuditLogWriter(jdbcTemplate, meterRegistry, capacity, 2, 1000, policy);
+    }
+
+    private static AuditEntry entry(String operation) {
+        return new AuditEntry(1L, null, operation, "POST /api/borrow/1", null, "127.0.0.1",
+                1, null, 3, LocalDateTime.now());
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("library.audit.entries").tag("result", result).counter().count();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesInBatchesOfFlushSize() {
+        AuditLogWriter writer = writer(10, AuditDropPolicy.DROP_NEWEST);
+        writer.offer(entry("a"));
+        writer.offer(entry("b"));
+        writer.offer(entry("c"));
+
+        assertEquals(2, writer.flush());
+        assertEquals(1, writer.flush());
+        assertEquals(0, writer.flush());
+
+        ArgumentCaptor<Collection<AuditEntry>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(2, 1), batches.getAllValues().stream().map(Collection::size).toList());
+        assertEquals(3, count("written"));
+        assertEquals(0, writer.size());
+    }
+
+    @Test
+    void dropNewestRejectsWhenFull() {
+        AuditLogWriter writer = writer(2, AuditDropPolicy.DROP_NEWEST);
+
+        assertTrue(writer.offer(entry("a")));
+        assertTrue(writer.offer(entry("b")));
+        assertFalse(writer.offer(entry("c")));
+
+        assertEquals(2, writer.size());
+        assertEquals(1, count("dropped"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dropOldestKeepsLatestEntries() {
+        AuditLogWriter writer = writer(2, AuditDropPolicy.DROP_OLDEST);
+        writer.offer(entry("a"));
+        writer.offer(entry("b"));
+        assertTrue(writer.offer(entry("c")));
+        assertEquals(2, writer.size());
+
+        writer.flush();
+
+        ArgumentCaptor<Collection<AuditEntry>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of("b", "c"), batch.getValue().stream().map(AuditEntry::getOperation).toList());
+        assertEquals(1, count("dropped"));
+    }
+
+    @Test
+    void failedBatchIsCountedAndNotRetried() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenThrow(new IllegalStateException("db down"));
+        AuditLogWriter writer = writer(10, AuditDropPolicy.DROP_NEWEST);
+        writer.offer(entry("a"));
+
+        assertEquals(1, writer.flush());
+        assertEquals(0, writer.flush());
+        assertEquals(1, count("failed"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.library.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.library.entity.Book;
+import com.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookServiceImpl.getBookList：buildLikeQuery 只构造无检索引擎时的 LIKE 条件并渲染 SQL 片段，
+ * firstPage 为不带关键词的分页（含 COUNT），keywordSearch 经进程内倒排索引取 ID 后按主键回表
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BookListBenchmark {
+
+    private BookService bookService;
+
+    private String[] keywords;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState library) {
+        bookService = library.bean(BookService.class);
+        Random random = new Random(CatalogDataGenerator.SEED);
+        keywords = new String[1024];
+        for (int i = 0; i < keywords.length; i++) {
+            keywords[i] = CatalogDataGenerator.keyword(random);
+        }
+    }
+
+    private String nextKeyword() {
+        next = (next + 1) & (keywords.length - 1);
+        return keywords[next];
+    }
+
+    @Benchmark
+    public String buildLikeQuery() {
+        String keyword = nextKeyword();
+        LambdaQueryWrapper<Book> wrapper = new LambdaQueryWrapper<>();
+        wrapper.and(w -> w
+                .like(Book::getTitle, keyword)
+                .or()
+                .like(Book::getAuthor, keyword)
+                .or()
+                .like(Book::getIsbn, keyword));
+        return wrapper.getCustomSqlSegment();
+    }
+
+    @Benchmark
+    public IPage<Book> firstPage() {
+        return bookService.getBookList(1, 10, null, null);
+    }
+
+    @Benchmark
+    public IPage<Book> keywordSearch() {
+        return bookService.getBookList(1, 10, nextKeyword(), null);
+    }
+}
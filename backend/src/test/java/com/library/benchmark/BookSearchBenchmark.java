@@ -0,0 +1,82 @@
+package com.library.benchmark;
+
+import com.library.search.InMemoryBookSearchEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图书检索延迟基准：进程内倒排索引 vs 内存中逐行 LIKE 扫描（模拟 '%kw%' 全表扫描的下限）
+ * SampleTime 模式输出 p99 等分位数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BookSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int books;
+
+    private InMemoryBookSearchEngine engine;
+
+    private String[] titles;
+
+    private String[] authors;
+
+    private String[] keywords;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var catalog = CatalogDataGenerator.books(books);
+        engine = new InMemoryBookSearchEngine(null);
+        engine.rebuild(catalog);
+        titles = catalog.stream().map(b -> b.getTitle().toLowerCase()).toArray(String[]::new);
+        authors = catalog.stream().map(b -> b.getAuthor().toLowerCase()).toArray(String[]::new);
+
+        Random random = new Random(CatalogDataGenerator.SEED);
+        keywords = new String[1024];
+        for (int i = 0; i < keywords.length; i++) {
+            keywords[i] = CatalogDataGenerator.keyword(random);
+        }
+    }
+
+    private String nextKeyword() {
+        next = (next + 1) & (keywords.length - 1);
+        return keywords[next];
+    }
+
+    @Benchmark
+    public Object invertedIndex() {
+        return engine.search(nextKeyword(), 0, 10);
+    }
+
+    @Benchmark
+    public void likeScan(Blackhole bh) {
+        String needle = nextKeyword();
+        int hits = 0;
+        for (int i = 0; i < titles.length; i++) {
+            if (titles[i].contains(needle) || authors[i].contains(needle)) {
+                hits++;
+            }
+        }
+        bh.consume(hits);
+    }
+}
@@ -0,0 +1,66 @@
+package com.library.benchmark;
+
+import com.library.entity.BorrowRecord;
+import com.library.service.BorrowService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BorrowServiceImpl.borrowBook 与 returnBook：每次操作借出一本有库存的书再立即归还，库存保持不变。
+ * 使用单独插入的、没有借阅记录的读者，避免与生成数据中未归还的记录冲突。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BorrowBenchmark {
+
+    private static final int READERS = 64;
+
+    private BorrowService borrowService;
+
+    private long[] readerIds;
+
+    private long[] bookIds;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState library) {
+        borrowService = library.bean(BorrowService.class);
+        JdbcTemplate jdbcTemplate = library.bean(JdbcTemplate.class);
+        for (int i = 1; i <= READERS; i++) {
+            jdbcTemplate.update("INSERT INTO sys_user (username, password, real_name, role, status) "
+                    + "VALUES (?, 'x', ?, 'USER', 1)", "bench" + i, "基准读者" + i);
+        }
+        readerIds = jdbcTemplate.queryForList("SELECT id FROM sys_user WHERE username LIKE 'bench%' ORDER BY id",
+                Long.class).stream().mapToLong(Long::longValue).toArray();
+        List<Long> available = jdbcTemplate.queryForList(
+                "SELECT id FROM book WHERE available_quantity > 0 ORDER BY id LIMIT 1024", Long.class);
+        bookIds = available.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Benchmark
+    public BorrowRecord borrowAndReturn() {
+        int i = next++;
+        long readerId = readerIds[i % readerIds.length];
+        long bookId = bookIds[i % bookIds.length];
+        BorrowRecord record = borrowService.borrowBook(readerId, bookId);
+        return borrowService.returnBook(record.getId());
+    }
+}
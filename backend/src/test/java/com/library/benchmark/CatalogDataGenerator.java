@@ -0,0 +1,81 @@
+package com.library.benchmark;
+
+import com.library.entity.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 可复现的合成图书数据，固定随机种子保证各版本基准结果可比
+ */
+public final class CatalogDataGenerator {
+
+    public static final long SEED = 20240101L;
+
+    private static final String[] CJK_WORDS = {
+            "深入", "理解", "计算机", "系统", "算法", "导论", "数据", "结构", "设计", "模式",
+            "历史", "文学", "中国", "世界", "现代", "古典", "科学", "艺术", "哲学", "经济",
+            "原理", "实践", "编程", "思想", "网络", "安全", "管理", "心理", "教育", "文化"
+    };
+
+    private static final String[] LATIN_WORDS = {
+            "java", "spring", "mysql", "redis", "linux", "python", "design", "pattern", "system", "network",
+            "data", "cloud", "kernel", "compiler", "database", "concurrency", "performance", "clean", "code", "web"
+    };
+
+    private static final String[] AUTHORS = {
+            "周志明", "余华", "路遥", "钱钟书", "司马迁", "Martin Fowler", "Robert C. Martin",
+            "Thomas H. Cormen", "Bruce Eckel", "Baron Schwartz", "Erich Gamma", "Randal E. Bryant"
+    };
+
+    private CatalogDataGenerator() {
+    }
+
+    public static List<Book> books(int count) {
+        Random random = new Random(SEED);
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            books.add(book(random, i));
+        }
+        return books;
+    }
+
+    public static Book book(Random random, long id) {
+        Book book = new Book();
+        book.setId(id);
+        book.setIsbn(String.format("978%010d", id));
+        book.setTitle(title(random));
+        book.setAuthor(AUTHORS[random.nextInt(AUTHORS.length)]);
+        book.setCategoryId((long) random.nextInt(5) + 1);
+        int total = random.nextInt(10) + 1;
+        book.setTotalQuantity(total);
+        book.setAvailableQuantity(random.nextInt(total + 1));
+        return book;
+    }
+
+    /**
+     * 书名中的一个词，用作检索关键词
+     */
+    public static String keyword(Random random) {
+        return random.nextBoolean()
+                ? CJK_WORDS[random.nextInt(CJK_WORDS.length)]
+                : LATIN_WORDS[random.nextInt(LATIN_WORDS.length)];
+    }
+
+    private static String title(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = random.nextInt(3) + 2;
+        for (int i = 0; i < words; i++) {
+            if (random.nextInt(4) == 0) {
+                if (title.length() > 0) {
+                    title.append(' ');
+                }
+                title.append(LATIN_WORDS[random.nextInt(LATIN_WORDS.length)]);
+            } else {
+                title.append(CJK_WORDS[random.nextInt(CJK_WORDS.length)]);
+            }
+        }
+        return title.toString();
+    }
+}
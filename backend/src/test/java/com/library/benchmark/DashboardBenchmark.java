@@ -0,0 +1,51 @@
+package com.library.benchmark;
+
+import com.library.dto.DashboardResponse;
+import com.library.service.DashboardService;
+import com.library.service.impl.DashboardServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DashboardServiceImpl：getDashboardData 读事件维护的内存快照，reconcileStats 为定时对账的 SQL 聚合，
+ * 后者的耗时随数据规模增长，决定对账间隔可以设多短
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DashboardBenchmark {
+
+    private DashboardService dashboardService;
+
+    private DashboardServiceImpl dashboardServiceImpl;
+
+    @Setup(Level.Trial)
+    public void setUp(LibraryState library) {
+        dashboardService = library.bean(DashboardService.class);
+        dashboardServiceImpl = library.bean(DashboardServiceImpl.class);
+    }
+
+    @Benchmark
+    public DashboardResponse getDashboardData() {
+        return dashboardService.getDashboardData();
+    }
+
+    @Benchmark
+    public void reconcileStats() {
+        dashboardServiceImpl.reconcileStats();
+    }
+}
@@ -0,0 +1,123 @@
+package com.library.benchmark;
+
+import com.library.security.JwtAuthenticationFilter;
+import com.library.security.TokenRevocationStore;
+import com.library.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 过滤器单请求开销：原实现（每次重建密钥、四次验签解析）vs 单次解析 vs 已验签缓存
+ * tokens 为活跃令牌数，模拟同时在线的会话
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "library-management-system-secret-key-2024-very-long-secret-key";
+
+    private static final long EXPIRATION = 86400000L;
+
+    private static final FilterChain NOOP_CHAIN = (request, response) -> { };
+
+    @Param({"1000"})
+    private int tokens;
+
+    private MockHttpServletRequest[] requests;
+
+    private MockHttpServletResponse response;
+
+    private JwtAuthenticationFilter singleParseFilter;
+
+    private JwtAuthenticationFilter cachedFilter;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtUtil issuer = new JwtUtil(SECRET, EXPIRATION, EXPIRATION, 0);
+        requests = new MockHttpServletRequest[tokens];
+        for (int i = 0; i < tokens; i++) {
+            requests[i] = new MockHttpServletRequest("GET", "/api/books");
+            requests[i].addHeader("Authorization",
+                    "Bearer " + issuer.generateToken("user" + i, (long) i + 1, i % 10 == 0 ? "ADMIN" : "USER"));
+        }
+        response = new MockHttpServletResponse();
+        singleParseFilter = filter(new JwtUtil(SECRET, EXPIRATION, EXPIRATION, 0));
+        cachedFilter = filter(new JwtUtil(SECRET, EXPIRATION, EXPIRATION, 10000));
+    }
+
+    private static JwtAuthenticationFilter filter(JwtUtil jwtUtil) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "revocationStore", new TokenRevocationStore(EXPIRATION, 100000, null));
+        return filter;
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletRequest nextRequest() {
+        MockHttpServletRequest request = requests[next];
+        next = next + 1 == requests.length ? 0 : next + 1;
+        return request;
+    }
+
+    @Benchmark
+    public Object legacyFilter() {
+        // 原过滤器：取用户名、校验（用户名+过期两次）、取 userId、取 role，每次都重建密钥并完整验签
+        String jwt = nextRequest().getHeader("Authorization").substring(7);
+        String username = legacyClaims(jwt).getSubject();
+        boolean valid = legacyClaims(jwt).getSubject().equals(username)
+                && !legacyClaims(jwt).getExpiration().before(new java.util.Date());
+        Long userId = legacyClaims(jwt).get("userId", Long.class);
+        String role = legacyClaims(jwt).get("role", String.class);
+        return valid ? userId + role : null;
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Object singleParse() throws Exception {
+        singleParseFilter.doFilter(nextRequest(), response, NOOP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object cachedVerify() throws Exception {
+        cachedFilter.doFilter(nextRequest(), response, NOOP_CHAIN);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
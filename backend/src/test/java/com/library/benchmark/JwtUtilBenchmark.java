@@ -0,0 +1,72 @@
+package com.library.benchmark;
+
+import com.library.util.JwtPrincipal;
+import com.library.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil 签发与解析：generate 为登录时签发访问令牌，parse 为每次完整验签，verify 为命中已验签缓存
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "library-management-system-secret-key-2024-very-long-secret-key";
+
+    private static final long EXPIRATION = 900000L;
+
+    private static final long REFRESH_EXPIRATION = 604800000L;
+
+    private static final int TOKENS = 1024;
+
+    private JwtUtil jwtUtil;
+
+    private String[] tokens;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, EXPIRATION, REFRESH_EXPIRATION, 10000);
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtUtil.generateToken("reader" + i, (long) i + 1, "USER");
+        }
+    }
+
+    private String nextToken() {
+        next = (next + 1) & (TOKENS - 1);
+        return tokens[next];
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken("reader1", 1L, "USER");
+    }
+
+    @Benchmark
+    public JwtPrincipal parse() {
+        return jwtUtil.parse(nextToken());
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyCached() {
+        return jwtUtil.verify(nextToken());
+    }
+}
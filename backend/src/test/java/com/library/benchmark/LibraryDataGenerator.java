@@ -0,0 +1,77 @@
+package com.library.benchmark;
+
+import com.library.entity.Book;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 可复现的整库数据：图书沿用 CatalogDataGenerator，另按图书规模生成读者和借阅记录并批量写入。
+ * 读者数为图书数的 1/10（至少 100），借阅记录数与图书数相同；时间以固定基准日推算，不依赖运行时刻。
+ */
+public final class LibraryDataGenerator {
+
+    /**
+     * 生成数据的基准时刻，借阅日期分布在它之前一年内
+     */
+    public static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+    private static final int BATCH_SIZE = 5000;
+
+    // 任意固定的 BCrypt 哈希，基准中不做登录
+    private static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z1v1VBv8kRXJMEfxXh7rwtSu";
+
+    private LibraryDataGenerator() {
+    }
+
+    public static int users(int books) {
+        return Math.max(100, books / 10);
+    }
+
+    /**
+     * 向空库写入 books 本图书及对应规模的读者和借阅记录，自增 ID 从 1 开始连续分配
+     */
+    public static void load(JdbcTemplate jdbcTemplate, int books) {
+        int users = users(books);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"reader" + i, PASSWORD_HASH, "读者" + i,
+                    String.format("139%08d", i), "reader" + i + "@library.com"});
+            flushIfFull(jdbcTemplate, "INSERT INTO sys_user (username, password, real_name, phone, email, role, status) "
+                    + "VALUES (?, ?, ?, ?, ?, 'USER', 1)", rows, i == users);
+        }
+
+        List<Book> catalog = CatalogDataGenerator.books(books);
+        for (int i = 0; i < catalog.size(); i++) {
+            Book book = catalog.get(i);
+            rows.add(new Object[]{book.getIsbn(), book.getTitle(), book.getAuthor(), book.getCategoryId(),
+                    book.getTotalQuantity(), book.getAvailableQuantity()});
+            flushIfFull(jdbcTemplate, "INSERT INTO book (isbn, title, author, category_id, total_quantity, available_quantity) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", rows, i == catalog.size() - 1);
+        }
+
+        Random random = new Random(CatalogDataGenerator.SEED + 1);
+        for (int i = 1; i <= books; i++) {
+            LocalDateTime borrowDate = BASE_TIME.minusMinutes(random.nextInt(365 * 24 * 60));
+            LocalDateTime dueDate = borrowDate.plusDays(30);
+            int kind = random.nextInt(10);
+            String status = kind < 7 ? "RETURNED" : kind < 9 ? "BORROWED" : "OVERDUE";
+            Timestamp returnDate = kind < 7 ? Timestamp.valueOf(borrowDate.plusDays(random.nextInt(30) + 1)) : null;
+            rows.add(new Object[]{random.nextInt(users) + 1, random.nextInt(books) + 1,
+                    Timestamp.valueOf(borrowDate), Timestamp.valueOf(dueDate), returnDate, status});
+            flushIfFull(jdbcTemplate, "INSERT INTO borrow_record (user_id, book_id, borrow_date, due_date, return_date, status) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", rows, i == books);
+        }
+    }
+
+    private static void flushIfFull(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows, boolean last) {
+        if (rows.size() >= BATCH_SIZE || (last && !rows.isEmpty())) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.library.benchmark;
+
+import com.library.LibraryManagementSystemApplication;
+import com.library.search.InMemoryBookSearchEngine;
+import com.library.service.impl.DashboardServiceImpl;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动完整应用上下文（bench profile，嵌入式 H2）并写入 books 规模的数据，供服务层基准共享。
+ * 默认依次跑 1 万、10 万、100 万本三个规模，可用 -p books=10000 只跑其中一个。
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    @Param({"10000", "100000", "1000000"})
+    public int books;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(LibraryManagementSystemApplication.class)
+                .profiles("bench")
+                .run();
+        // 检索索引在启动时基于空库异步构建，等它完成再写数据，之后重建索引和统计快照
+        InMemoryBookSearchEngine searchEngine = context.getBean(InMemoryBookSearchEngine.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!searchEngine.isReady()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Search index was not built on startup");
+            }
+            Thread.onSpinWait();
+        }
+        LibraryDataGenerator.load(context.getBean(JdbcTemplate.class), books);
+        searchEngine.rebuildFromDatabase();
+        context.getBean(DashboardServiceImpl.class).reconcileStats();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int users() {
+        return LibraryDataGenerator.users(books);
+    }
+}
@@ -0,0 +1,177 @@
+package com.library.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.library.entity.User;
+import com.library.security.PasswordVerifier;
+import com.library.service.impl.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录风暴下日志开销的吞吐对比：
+ * legacy 复现原登录流程的 15 行 INFO 日志和 MyBatis StdOutImpl 同步打印 SQL；
+ * current 调用现在的 UserServiceImpl.login（成功只有一条 debug）。
+ * 日志写入临时文件，appender 分同步和 AsyncAppender 两种；密码校验用恒等比较，只衡量日志本身。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LoginLoggingBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger("com.library.service.impl.LegacyLogin");
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    private File logFile;
+
+    private PrintStream sqlOut;
+
+    private UserServiceImpl userService;
+
+    private User user;
+
+    @Setup
+    public void setUp() throws IOException {
+        logFile = File.createTempFile("login-bench", ".log");
+        logFile.deleteOnExit();
+        configureLogback();
+        // StdOutImpl 直接写 System.out，这里用同步的文件流代替，避免污染 JMH 输出
+        sqlOut = new PrintStream(new FileOutputStream(logFile, true), true);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("admin");
+        user.setPassword("admin");
+        user.setRole("ADMIN");
+        user.setStatus(1);
+
+        PasswordEncoder plain = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        PasswordVerifier verifier = new PasswordVerifier(plain, new SimpleMeterRegistry(), 8, 64, 5000, Duration.ZERO, 0);
+        userService = new UserServiceImpl(verifier, event -> { }, null, null) {
+            @Override
+            public User getUserByUsername(String username) {
+                return user;
+            }
+        };
+        ReflectionTestUtils.setField(userService, "self", userService);
+    }
+
+    private void configureLogback() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %5level --- [%thread] %logger{40} : %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.getAbsolutePath());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> root = file;
+        if ("async".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            root = async;
+        }
+        ch.qos.logback.classic.Logger rootLogger = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(root);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sqlOut.close();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+    }
+
+    @Benchmark
+    public User legacy() {
+        String username = "admin";
+        logger.info("========================================");
+        logger.info("Login process started for username: {}", username);
+        logger.info("========================================");
+        logger.info("Step 1: Querying user from database...");
+        logger.info("getUserByUsername - Querying: {}", username);
+        sqlOut.println("==>  Preparing: SELECT id,username,password,real_name,phone,email,role,status,deleted,"
+                + "create_time,update_time FROM sys_user WHERE deleted=0 AND (username = ?)");
+        sqlOut.println("==> Parameters: admin(String)");
+        sqlOut.println("<==    Columns: id, username, password, real_name, phone, email, role, status, deleted, "
+                + "create_time, update_time");
+        sqlOut.println("<==        Row: 1, admin, $2a$10$abcdefghijklmnopqrstuv, 管理员, 13800000000, admin@library.com, "
+                + "ADMIN, 1, 0, 2024-01-01 00:00:00, 2024-01-01 00:00:00");
+        sqlOut.println("<==      Total: 1");
+        logger.info("User found: ID={}, Username={}", user.getId(), user.getUsername());
+        logger.info("Step 1 SUCCESS: User found");
+        logger.info("User details: ID={}, Username={}, Role={}, Status={}",
+                user.getId(), user.getUsername(), user.getRole(), user.getStatus());
+        logger.info("========================================");
+        logger.info("Step 2: Verifying password...");
+        logger.info("Password match result: {}", "admin".equals(user.getPassword()));
+        logger.info("Step 2 SUCCESS: Password verified");
+        logger.info("========================================");
+        logger.info("Step 3: Checking user status...");
+        logger.info("Step 3 SUCCESS: Account is active");
+        logger.info("========================================");
+        logger.info("LOGIN SUCCESS: User {} successfully logged in", username);
+        logger.info("========================================");
+        return user;
+    }
+
+    @Benchmark
+    public User current() {
+        return userService.login("admin", "admin");
+    }
+}
@@ -0,0 +1,87 @@
+package com.library.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.library.entity.User;
+import com.library.security.PasswordEncoders;
+import com.library.security.PasswordVerifier;
+import com.library.service.impl.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单核登录吞吐（次/秒）：一个请求线程、一个哈希线程，用户查询直接返回内存对象，只衡量密码校验路径。
+ * strength 为 BCrypt 成本；cache=true 时同一用户重复登录命中已校验凭据缓存。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(1)
+@Fork(1)
+public class LoginThroughputBenchmark {
+
+    @Param({"10", "12"})
+    private int strength;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    private PasswordVerifier verifier;
+
+    private UserServiceImpl userService;
+
+    @Setup
+    public void setUp() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory())
+                .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).setLevel(Level.WARN);
+
+        PasswordEncoder encoder = PasswordEncoders.create(PasswordEncoders.BCRYPT, strength);
+        verifier = new PasswordVerifier(encoder, new SimpleMeterRegistry(), 1, 64, 60000,
+                cache ? Duration.ofMinutes(10) : Duration.ZERO, 10000);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("admin");
+        user.setPassword(encoder.encode("admin123"));
+        user.setRole("ADMIN");
+        user.setStatus(1);
+
+        userService = new UserServiceImpl(verifier, event -> { }, null, null) {
+            @Override
+            public User getUserByUsername(String username) {
+                return user;
+            }
+        };
+        ReflectionTestUtils.setField(userService, "self", userService);
+    }
+
+    @TearDown
+    public void tearDown() {
+        verifier.shutdown();
+    }
+
+    @Benchmark
+    public User login() {
+        return userService.login("admin", "admin123");
+    }
+}
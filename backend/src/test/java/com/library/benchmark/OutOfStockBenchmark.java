@@ -0,0 +1,70 @@
+package com.library.benchmark;
+
+import com.library.common.Result;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 抢借时“库存不足”分支的开销对比：
+ * legacy 在服务层 new RuntimeException 并在控制器 catch 后包装 Result；
+ * current 抛出 ErrorCode 共享的无堆栈 BusinessException，由全局处理器同样包装 Result。
+ * 抛出点位于 depth 层调用栈之下，模拟 Tomcat、过滤器链、Spring MVC 和事务代理叠加的栈深度；
+ * 配合 -prof gc 观察每次操作的分配字节数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class OutOfStockBenchmark {
+
+    @Param({"120"})
+    private int depth;
+
+    @Benchmark
+    public Result<Void> legacy() {
+        try {
+            descend(depth, true);
+            return Result.success(null);
+        } catch (RuntimeException e) {
+            return Result.error(400, e.getMessage());
+        }
+    }
+
+    @Benchmark
+    public Result<Void> current() {
+        try {
+            descend(depth, false);
+            return Result.success(null);
+        } catch (BusinessException e) {
+            ErrorCode code = e.getErrorCode();
+            return Result.error(code.getStatus(), e.getMessage());
+        }
+    }
+
+    private static int descend(int remaining, boolean legacy) {
+        if (remaining > 0) {
+            return descend(remaining - 1, legacy) + 1;
+        }
+        // 对应 BorrowServiceImpl.borrowBook 中条件扣减未命中的分支
+        if (legacy) {
+            throw new RuntimeException("图书库存不足");
+        }
+        throw ErrorCode.BOOK_OUT_OF_STOCK.exception();
+    }
+}
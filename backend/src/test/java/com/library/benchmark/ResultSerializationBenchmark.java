@@ -0,0 +1,84 @@
+package com.library.benchmark;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.common.Result;
+import com.library.dto.DashboardResponse;
+import com.library.entity.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result 响应体的 JSON 序列化：图书分页（rows 条）和仪表盘，ObjectMapper 与 Spring MVC 默认配置一致
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+
+    private Result<Page<Book>> bookPage;
+
+    private Result<DashboardResponse> dashboard;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Page<Book> page = new Page<>(1, rows, 100000);
+        page.setRecords(CatalogDataGenerator.books(rows));
+        bookPage = Result.success(page);
+
+        DashboardResponse response = new DashboardResponse();
+        DashboardResponse.DashboardStats stats = new DashboardResponse.DashboardStats();
+        stats.setTotalBooks(100000);
+        stats.setAvailableBooks(62000);
+        stats.setBorrowedBooks(38000);
+        stats.setTotalUsers(10000);
+        response.setStats(stats);
+        List<DashboardResponse.BorrowRecordDetail> recent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            DashboardResponse.BorrowRecordDetail detail = new DashboardResponse.BorrowRecordDetail();
+            detail.setId((long) i + 1);
+            detail.setBookTitle("深入理解计算机系统");
+            detail.setUsername("读者" + i);
+            detail.setBorrowDate("2024-06-01 09:00:00");
+            detail.setStatus("BORROWED");
+            recent.add(detail);
+        }
+        response.setRecentRecords(recent);
+        dashboard = Result.success(response);
+    }
+
+    @Benchmark
+    public byte[] bookPage() throws Exception {
+        return objectMapper.writeValueAsBytes(bookPage);
+    }
+
+    @Benchmark
+    public byte[] dashboard() throws Exception {
+        return objectMapper.writeValueAsBytes(dashboard);
+    }
+}
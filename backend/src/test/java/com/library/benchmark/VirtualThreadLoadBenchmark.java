@@ -0,0 +1,170 @@
+package com.library.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 慢库场景下平台线程池与虚拟线程的请求执行对比
+ * platform 模拟 Tomcat 默认 200 个工作线程加无界等待队列；virtual 每个请求一个虚拟线程（需 JDK 21）。
+ * 两种模式共用一个 20 连接、3 秒取连接超时的“连接池”。按固定速率开环发出请求：
+ * 10% 为慢查询，持有连接 100ms；其余为不访问数据库的快请求（如缓存命中），阻塞 2ms。
+ * 延迟从计划发出时刻算起，避免协调遗漏；每轮结束打印最大在途请求数和两类请求的 p50/p99/max。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int POOL_SIZE = 20;
+    private static final long POOL_TIMEOUT_MILLIS = 3000;
+
+    private static final int REQUESTS = 4000;
+    private static final long ARRIVAL_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(250);
+    private static final int SLOW_EVERY = 10;
+    private static final long SLOW_QUERY_MILLIS = 100;
+    private static final long FAST_BLOCK_MILLIS = 2;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    private ExecutorService executor;
+
+    private Semaphore connections;
+
+    private long[] latencies;
+
+    private AtomicInteger inFlight;
+
+    private AtomicInteger maxInFlight;
+
+    private AtomicInteger rejected;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        executor = "virtual".equals(mode) ? newVirtualThreadPerTaskExecutor() : new ThreadPoolExecutor(
+                TOMCAT_MAX_THREADS, TOMCAT_MAX_THREADS, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        connections = new Semaphore(POOL_SIZE, true);
+        latencies = new long[REQUESTS];
+        inFlight = new AtomicInteger();
+        maxInFlight = new AtomicInteger();
+        rejected = new AtomicInteger();
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            long intended = start + i * ARRIVAL_INTERVAL_NANOS;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int index = i;
+            executor.execute(() -> {
+                try {
+                    handle(index % SLOW_EVERY == 0);
+                } finally {
+                    latencies[index] = System.nanoTime() - intended;
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void handle(boolean slow) {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            if (!slow) {
+                sleep(FAST_BLOCK_MILLIS);
+                return;
+            }
+            if (!connections.tryAcquire(POOL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                return;
+            }
+            try {
+                sleep(SLOW_QUERY_MILLIS);
+            } finally {
+                connections.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        long[] fast = new long[REQUESTS - REQUESTS / SLOW_EVERY];
+        long[] slow = new long[REQUESTS / SLOW_EVERY];
+        int f = 0;
+        int s = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            if (i % SLOW_EVERY == 0) {
+                slow[s++] = latencies[i];
+            } else {
+                fast[f++] = latencies[i];
+            }
+        }
+        System.out.printf("%n[%s] max in-flight: %d, pool timeouts: %d%n", mode, maxInFlight.get(), rejected.get());
+        System.out.printf("[%s] fast %s%n", mode, summary(fast));
+        System.out.printf("[%s] slow %s%n", mode, summary(slow));
+    }
+
+    private static String summary(long[] nanos) {
+        Arrays.sort(nanos);
+        return String.format("p50: %.1f ms, p99: %.1f ms, max: %.1f ms",
+                millis(nanos[nanos.length / 2]), millis(nanos[(int) (nanos.length * 0.99)]), millis(nanos[nanos.length - 1]));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(millis);
+    }
+
+    /**
+     * 构建目标为 Java 17 时仍需编译通过，这里反射获取 JDK 21 的虚拟线程执行器
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("virtual 模式需要 JDK 21 及以上", e);
+        }
+    }
+}
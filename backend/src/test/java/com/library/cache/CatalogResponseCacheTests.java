@@ -0,0 +1,121 @@
+package com.library.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.common.Result;
+import com.library.entity.Book;
+import com.library.entity.BorrowRecord;
+import com.library.event.BookChangedEvent;
+import com.library.event.BorrowEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 目录响应缓存单元测试，失效广播记录到列表中
+ */
+class CatalogResponseCacheTests {
+
+    private final List<String> published = new ArrayList<>();
+
+    private final CatalogResponseCache cache = new CatalogResponseCache(new ObjectMapper(), new SimpleMeterRegistry(),
+            (name, key) -> published.add(name + ":" + key), 100, Duration.ofMinutes(1), 256);
+
+    @Test
+    void servesSerializedEntryUntilCatalogChanges() {
+        int[] loads = {0};
+        CatalogResponseCache.Entry first = cache.get("page:1:10:null", () -> body(++loads[0]));
+        CatalogResponseCache.Entry second = cache.get("page:1:10:null", () -> body(++loads[0]));
+
+        assertSame(first, second);
+        assertEquals(1, loads[0]);
+
+        cache.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.RENEWED, new BorrowRecord()));
+        cache.get("page:1:10:null", () -> body(++loads[0]));
+        assertEquals(1, loads[0]);
+        assertTrue(published.isEmpty());
+
+        cache.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, new BorrowRecord()));
+        cache.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.BORROWED, new BorrowRecord()));
+        cache.get("page:1:10:null", () -> body(++loads[0]));
+        assertEquals(1, loads[0]);
+        assertTrue(published.isEmpty());
+
+        cache.flushStockChanges();
+        cache.flushStockChanges();
+        CatalogResponseCache.Entry third = cache.get("page:1:10:null", () -> body(++loads[0]));
+        assertEquals(2, loads[0]);
+        assertNotEquals(first.etag(), third.etag());
+        assertEquals(List.of(CatalogResponseCache.CACHE_NAME + ":null"), published);
+    }
+
+    @Test
+    void bookChangeInvalidatesImmediatelyAndAbsorbsPendingStockChanges() {
+        long version = cache.version();
+
+        cache.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.BORROWED, new BorrowRecord()));
+        cache.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, new Book()));
+        cache.flushStockChanges();
+
+        assertEquals(version + 1, cache.version());
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    void remoteInvalidationIsNotRebroadcast() {
+        long version = cache.version();
+
+        cache.invalidateLocal();
+
+        assertEquals(version + 1, cache.version());
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void sameContentKeepsSameWeakEtag() {
+        String etag = cache.serialize(body(1)).etag();
+
+        assertTrue(etag.startsWith("W/\""));
+        assertEquals(etag, cache.serialize(body(1)).etag());
+    }
+
+    @Test
+    void servesPrecompressedBodyOnlyWhenClientAcceptsGzip() throws IOException {
+        CatalogResponseCache.Entry entry = cache.serialize(Result.success(Collections.nCopies(50, "三体")));
+        assertNotNull(entry.gzip());
+
+        ResponseEntity<byte[]> gzipped = entry.toResponse("deflate, gzip;q=0.8", LocalDateTime.now());
+        assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(entry.etag(), gzipped.getHeaders().getETag());
+        assertTrue(gzipped.getHeaders().getLastModified() > 0);
+        assertArrayEquals(entry.json(), gunzip(gzipped.getBody()));
+
+        ResponseEntity<byte[]> plain = entry.toResponse("gzip;q=0");
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(entry.json(), plain.getBody());
+        assertTrue(plain.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+
+        assertNull(cache.serialize(body(1)).gzip());
+    }
+
+    private static Result<Integer> body(int value) {
+        return Result.success(value);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.library.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.entity.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 两级缓存单元测试，L2 使用 ConcurrentMapCache 代替 Redis
+ */
+class TwoLevelCacheTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCache remote;
+    private List<String> published;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        remote = new ConcurrentMapCache(CacheNames.BOOKS, false);
+        published = new ArrayList<>();
+        cache = newCache(remote, (name, key) -> published.add(name + ":" + key));
+    }
+
+    private TwoLevelCache newCache(Cache l2, CacheInvalidationPublisher publisher) {
+        return new TwoLevelCache(CacheNames.BOOKS,
+                Caffeine.newBuilder().maximumSize(100).build(), l2, publisher, meterRegistry);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("library.cache.gets").tag("result", result).counter().count();
+    }
+
+    private static Book book(long id, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        return book;
+    }
+
+    @Test
+    void loadsOnceThenServesFromLocal() {
+        int[] loads = {0};
+        Book first = cache.get(1L, () -> {
+            loads[0]++;
+            return book(1L, "三体");
+        });
+        Book second = cache.get(1L, () -> {
+            loads[0]++;
+            return book(1L, "三体");
+        });
+
+        assertEquals(1, loads[0]);
+        assertSame(first, second);
+        assertNotNull(remote.get(1L));
+        assertEquals(1, count("miss"));
+        assertEquals(1, count("l1_hit"));
+    }
+
+    @Test
+    void remoteHitPopulatesLocal() {
+        remote.put(2L, book(2L, "活着"));
+
+        assertEquals("活着", ((Book) cache.get(2L).get()).getTitle());
+        assertEquals(1, count("l2_hit"));
+
+        remote.evict(2L);
+        assertNotNull(cache.get(2L));
+        assertEquals(1, count("l1_hit"));
+    }
+
+    @Test
+    void fillOnMissDoesNotBroadcast() {
+        cache.get(7L, () -> book(7L, "城南旧事"));
+        cache.put(8L, book(8L, "呼兰河传"));
+
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void evictClearsBothLevelsAndBroadcasts() {
+        cache.put(3L, book(3L, "围城"));
+        published.clear();
+
+        cache.evict(3L);
+
+        assertNull(cache.get(3L));
+        assertNull(remote.get(3L));
+        assertEquals(List.of("books:3"), published);
+    }
+
+    @Test
+    void evictLocalKeepsRemoteEntry() {
+        cache.put(4L, book(4L, "边城"));
+
+        cache.evictLocal("4");
+
+        assertNotNull(remote.get(4L));
+        assertNotNull(cache.get(4L));
+        assertEquals(1, count("l2_hit"));
+    }
+
+    @Test
+    void nullValuesAreNotCached() {
+        assertNull(cache.get(5L, () -> null));
+        assertNull(remote.get(5L));
+        assertNull(cache.get(5L));
+    }
+
+    @Test
+    void remoteFailureFallsBackToLocal() {
+        ConcurrentMapCache broken = new ConcurrentMapCache(CacheNames.BOOKS, false) {
+            @Override
+            public ValueWrapper get(Object key) {
+                throw new IllegalStateException("redis down");
+            }
+
+            @Override
+            public void put(Object key, Object value) {
+                throw new IllegalStateException("redis down");
+            }
+        };
+        TwoLevelCache degraded = newCache(broken, CacheInvalidationPublisher.NONE);
+
+        Book loaded = degraded.get(6L, () -> book(6L, "平凡的世界"));
+
+        assertEquals("平凡的世界", loaded.getTitle());
+        assertSame(loaded, degraded.get(6L).get());
+    }
+}
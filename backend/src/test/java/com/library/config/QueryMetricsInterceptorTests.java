@@ -0,0 +1,65 @@
+package com.library.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryMetricsInterceptorTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryMetricsInterceptor interceptor = new QueryMetricsInterceptor(registry);
+    private final Executor executor = mock(Executor.class);
+
+    @Test
+    void recordsLatencyAndRowsPerStatement() throws Throwable {
+        MappedStatement ms = statement("com.library.mapper.BookMapper.selectById", SqlCommandType.SELECT);
+        when(executor.query(any(), any(), any(), any())).thenReturn(List.of("a", "b", "c"));
+
+        Executor plugged = (Executor) interceptor.plugin(executor);
+        plugged.query(ms, null, RowBounds.DEFAULT, null);
+        plugged.query(ms, null, RowBounds.DEFAULT, null);
+
+        Timer timer = registry.get("library.db.query")
+                .tags("statement", "BookMapper.selectById", "type", "SELECT", "outcome", "success").timer();
+        assertEquals(2, timer.count());
+        DistributionSummary rows = registry.get("library.db.query.rows")
+                .tag("statement", "BookMapper.selectById").summary();
+        assertEquals(6, rows.totalAmount());
+    }
+
+    @Test
+    void recordsFailuresSeparately() throws Throwable {
+        MappedStatement ms = statement("com.library.mapper.BookMapper.updateById", SqlCommandType.UPDATE);
+        when(executor.update(any(), any())).thenThrow(new SQLException("lock wait timeout"));
+
+        Executor plugged = (Executor) interceptor.plugin(executor);
+        assertThrows(SQLException.class, () -> plugged.update(ms, null));
+
+        assertEquals(1, registry.get("library.db.query").tag("outcome", "error").timer().count());
+        assertEquals(0, registry.get("library.db.query.rows").summary().count());
+    }
+
+    @Test
+    void shortensStatementIdToMapperAndMethod() {
+        assertEquals("BookMapper.selectById", QueryMetricsInterceptor.statementName("com.library.mapper.BookMapper.selectById"));
+        assertEquals("selectById", QueryMetricsInterceptor.statementName("selectById"));
+    }
+
+    private static MappedStatement statement(String id, SqlCommandType type) {
+        return new MappedStatement.Builder(new Configuration(), id, parameter -> null, type).build();
+    }
+}
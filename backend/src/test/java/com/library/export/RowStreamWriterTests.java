@@ -0,0 +1,108 @@
+package com.library.export;
+
+import com.library.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowStreamWriterTests {
+
+    private static final int HEAP_MB = 32;
+
+    private static final int ROWS = 1_000_000;
+
+    private static Book book(long id) {
+        Book book = new Book();
+        book.setId(id);
+        book.setIsbn(String.valueOf(9787000000000L + id));
+        book.setTitle("测试图书, 第" + id + "册");
+        book.setAuthor("作者\"" + (id % 100) + "\"");
+        book.setPublishDate(LocalDate.of(2020, 1, 1));
+        book.setPrice(new BigDecimal("39.90"));
+        book.setTotalQuantity(5);
+        book.setAvailableQuantity(3);
+        book.setDescription(id % 2 == 0 ? "第一行\n第二行" : null);
+        return book;
+    }
+
+    @Test
+    void writesCsvWithEscaping() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = RowStreamWriter.write(List.of(book(1), book(2)), ExportColumns.BOOKS, ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, rows);
+        assertTrue(lines[0].startsWith("\uFEFFid,isbn,title,author"));
+        assertEquals("1,9787000000001,\"测试图书, 第1册\",\"作者\"\"1\"\"\",,2020-01-01,,39.90,5,3,,,,,", lines[1]);
+        assertTrue(lines[2].contains(",\"第一行\n第二行\","));
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowStreamWriter.write(List.of(book(1), book(2)), ExportColumns.BOOKS, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"isbn\":\"9787000000001\",\"title\":\"测试图书, 第1册\""));
+        assertTrue(lines[0].contains("\"price\":39.90,\"totalQuantity\":5"));
+        assertTrue(lines[1].contains("\"description\":\"第一行\\n第二行\""));
+    }
+
+    /**
+     * 在 32MB 堆的子进程中导出 100 万行，结果集若被整体物化会 OOM
+     */
+    @Test
+    void exportsMillionRowsUnderSmallHeap() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-Xmx" + HEAP_MB + "m",
+                "-cp", System.getProperty("java.class.path"),
+                MillionRowExport.class.getName(), String.valueOf(ROWS))
+                .redirectErrorStream(true)
+                .start();
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES), "export did not finish");
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertEquals(0, process.exitValue(), output);
+        assertEquals(String.valueOf(ROWS * 2L), output);
+    }
+
+    /**
+     * 子进程入口：模拟游标逐行产生记录，CSV 和 gzip NDJSON 各导出一遍，输出总行数
+     */
+    public static class MillionRowExport {
+
+        public static void main(String[] args) throws Exception {
+            int rows = Integer.parseInt(args[0]);
+            Iterable<Book> cursor = () -> new Iterator<>() {
+                private long next = 1;
+
+                @Override
+                public boolean hasNext() {
+                    return next <= rows;
+                }
+
+                @Override
+                public Book next() {
+                    return book(next++);
+                }
+            };
+            OutputStream discard = OutputStream.nullOutputStream();
+            long total = RowStreamWriter.write(cursor, ExportColumns.BOOKS, ExportFormat.CSV, discard);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(discard, 64 * 1024)) {
+                total += RowStreamWriter.write(cursor, ExportColumns.BOOKS, ExportFormat.NDJSON, gzip);
+            }
+            System.out.print(total);
+        }
+    }
+}
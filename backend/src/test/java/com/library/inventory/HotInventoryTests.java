@@ -0,0 +1,127 @@
+package com.library.inventory;
+
+import com.library.entity.Book;
+import com.library.entity.BorrowRecord;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
+import com.library.mapper.BookMapper;
+import com.library.mapper.BorrowRecordMapper;
+import com.library.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 热门库存单元测试，不启动后台线程，直接调用 flush 和 reconcile
+ */
+class HotInventoryTests {
+
+    private static final Long BOOK_ID = 7L;
+
+    private final BookService bookService = mock(BookService.class);
+
+    private final BookMapper bookMapper = mock(BookMapper.class);
+
+    private final BorrowRecordMapper borrowRecordMapper = mock(BorrowRecordMapper.class);
+
+    private final HotInventory inventory = new HotInventory(bookService, bookMapper, borrowRecordMapper,
+            mock(ApplicationEventPublisher.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            new SimpleMeterRegistry(), List.of(), 100, 5, 1000, 1000);
+
+    @BeforeEach
+    void setUp() {
+        when(bookMapper.selectById(BOOK_ID)).thenReturn(book(2));
+        when(bookService.decreaseAvailableQuantity(anyLong(), anyInt())).thenReturn(true);
+        inventory.enable(BOOK_ID);
+    }
+
+    @Test
+    void admitsUpToStockThenRejectsWithoutTouchingDatabase() {
+        HotInventory.Reservation first = inventory.reserve(1L, BOOK_ID);
+        HotInventory.Reservation second = inventory.reserve(2L, BOOK_ID);
+
+        assertEquals(ErrorCode.BOOK_OUT_OF_STOCK, reserveError(3L));
+        verifyNoInteractions(bookService);
+
+        assertEquals(2, inventory.flush());
+        verify(bookService).decreaseAvailableQuantity(BOOK_ID, 2);
+        verify(borrowRecordMapper, times(2)).insert(any(BorrowRecord.class));
+        assertEquals(1L, first.result.join().getUserId());
+        assertEquals(2L, second.result.join().getUserId());
+        assertEquals(0, inventory.pending());
+    }
+
+    @Test
+    void rejectsSecondReservationBySameReaderBeforeFlush() {
+        inventory.reserve(1L, BOOK_ID);
+
+        assertEquals(ErrorCode.BOOK_ALREADY_BORROWED, reserveError(1L));
+        assertEquals(Map.of(BOOK_ID, 1L), inventory.snapshot());
+    }
+
+    @Test
+    void retriesIndividuallyWhenDatabaseHasFewerCopies() {
+        when(bookService.decreaseAvailableQuantity(BOOK_ID, 2)).thenReturn(false);
+        when(bookService.decreaseAvailableQuantity(BOOK_ID, 1)).thenReturn(true, false);
+        when(bookMapper.selectBatchIds(any())).thenReturn(List.of(book(0)));
+        HotInventory.Reservation first = inventory.reserve(1L, BOOK_ID);
+        HotInventory.Reservation second = inventory.reserve(2L, BOOK_ID);
+
+        inventory.flush();
+
+        assertEquals(1L, first.result.join().getUserId());
+        CompletionException error = assertThrows(CompletionException.class, second.result::join);
+        assertEquals(ErrorCode.BOOK_OUT_OF_STOCK, ((BusinessException) error.getCause()).getErrorCode());
+        assertEquals(Map.of(BOOK_ID, 0L), inventory.snapshot());
+    }
+
+    @Test
+    void cancelledReservationReturnsItsCopy() {
+        HotInventory.Reservation reservation = inventory.reserve(1L, BOOK_ID);
+        assertTrue(reservation.cancel());
+
+        inventory.flush();
+
+        verify(bookService, never()).decreaseAvailableQuantity(anyLong(), anyInt());
+        assertEquals(Map.of(BOOK_ID, 2L), inventory.snapshot());
+    }
+
+    @Test
+    void reconcileAddsChangesMadeOutsideHotPath() {
+        inventory.reserve(1L, BOOK_ID);
+        // 预占尚未落库时有人归还了一本
+        when(bookMapper.selectBatchIds(any())).thenReturn(List.of(book(3)));
+
+        inventory.reconcile();
+
+        assertEquals(Map.of(BOOK_ID, 2L), inventory.snapshot());
+        inventory.flush();
+        verify(bookService).decreaseAvailableQuantity(eq(BOOK_ID), eq(1));
+    }
+
+    private ErrorCode reserveError(Long userId) {
+        return assertThrows(BusinessException.class, () -> inventory.reserve(userId, BOOK_ID)).getErrorCode();
+    }
+
+    private static Book book(int available) {
+        Book book = new Book();
+        book.setId(BOOK_ID);
+        book.setTotalQuantity(5);
+        book.setAvailableQuantity(available);
+        return book;
+    }
+}
@@ -0,0 +1,99 @@
+package com.library.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个接口的延迟和结果统计，单位微秒。
+ * latency 从计划发出时刻算起（修正协调遗漏，包含在客户端排队的时间），service 从实际发出时刻算起；
+ * 两者差距大说明压测端或服务端已跟不上到达速率。
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String name;
+
+    private final Recorder latencyRecorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+    private final Recorder serviceRecorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+    private final Histogram latency = newHistogram();
+
+    private final Histogram service = newHistogram();
+
+    private final LongAdder succeeded = new LongAdder();
+
+    // 4xx：库存不足、续借次数用完等业务拒绝，属于正常负载的一部分
+    private final LongAdder rejected = new LongAdder();
+
+    // 5xx、超时和连接失败
+    private final LongAdder failed = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @param status HTTP 状态码，请求未得到响应时为 -1
+     */
+    void record(long intendedNanos, long sentNanos, long doneNanos, int status) {
+        latencyRecorder.recordValue(toMicros(doneNanos - intendedNanos));
+        serviceRecorder.recordValue(toMicros(doneNanos - sentNanos));
+        if (status >= 200 && status < 300) {
+            succeeded.increment();
+        } else if (status >= 400 && status < 500) {
+            rejected.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    /**
+     * 取出上次调用以来的延迟直方图并累加到全程统计，由报告线程定期调用
+     */
+    synchronized Histogram drainInterval() {
+        Histogram interval = latencyRecorder.getIntervalHistogram();
+        latency.add(interval);
+        service.add(serviceRecorder.getIntervalHistogram());
+        interval.setTag(name);
+        return interval;
+    }
+
+    Histogram getLatency() {
+        return latency;
+    }
+
+    Histogram getService() {
+        return service;
+    }
+
+    long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+}
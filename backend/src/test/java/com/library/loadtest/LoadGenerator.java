@@ -0,0 +1,474 @@
+package com.library.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.benchmark.CatalogDataGenerator;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开放模型压测：按设定的到达速率发出请求，不等上一个请求完成，服务端变慢时请求在客户端排队而不是少发，
+ * 与柜台前排队的真实流量一致。每个柜台用一个读者账号（desk1..deskN，不存在时自动注册）。
+ * 混合负载为登录、关键词检索、借书、还书、续借和仪表盘轮询；还书和续借使用本柜台之前借出的记录，
+ * 没有可用记录时改为借书。延迟从计划发出时刻算起，服务端卡顿期间本该发出的请求也如实计入（修正协调遗漏）。
+ * <p>
+ * 参数均为 --名称=值：base-url、rate（每秒到达数）、arrival（poisson 或 uniform）、duration 和 warmup（秒）、
+ * concurrency（同时在途的最大请求数）、desks、mix（如 search=45,borrow=15）、book-sample、timeout（毫秒）、
+ * report-interval（秒）、password、seed、output。结果写入 output 目录：每个接口的 .hgrm 百分位分布，
+ * 以及按接口打标签的区间日志 latency.hlog，可用 HdrHistogram 的工具绘图或与其他版本对比。
+ */
+public final class LoadGenerator {
+
+    enum Endpoint {
+        LOGIN, SEARCH, BORROW, RETURN, RENEW, DASHBOARD
+    }
+
+    private static final String DEFAULT_MIX = "login=2,search=45,borrow=15,return=13,renew=5,dashboard=20";
+
+    private static final int CURSOR_PAGE_SIZE = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String baseUrl;
+
+    private final double rate;
+
+    private final boolean poisson;
+
+    private final long warmupNanos;
+
+    private final long durationNanos;
+
+    private final int concurrency;
+
+    private final int deskCount;
+
+    private final int bookSample;
+
+    private final Duration timeout;
+
+    private final long reportIntervalSeconds;
+
+    private final String password;
+
+    private final long seed;
+
+    private final Path output;
+
+    private final Endpoint[] endpoints;
+
+    private final int[] cumulativeWeights;
+
+    private final HttpClient client;
+
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    // 已到达但还没有工作线程处理的请求数
+    private final AtomicInteger backlog = new AtomicInteger();
+
+    private final AtomicInteger maxBacklog = new AtomicInteger();
+
+    private Desk[] desks;
+
+    private long[] bookIds;
+
+    private volatile long measureFromNanos;
+
+    private HistogramLogWriter logWriter;
+
+    LoadGenerator(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("base-url", "http://localhost:8080").replaceAll("/+$", "");
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        this.poisson = !"uniform".equals(options.getOrDefault("arrival", "poisson"));
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "10")));
+        this.durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "60")));
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        this.deskCount = Integer.parseInt(options.getOrDefault("desks", "50"));
+        this.bookSample = Integer.parseInt(options.getOrDefault("book-sample", "10000"));
+        this.timeout = Duration.ofMillis(Long.parseLong(options.getOrDefault("timeout", "10000")));
+        this.reportIntervalSeconds = Long.parseLong(options.getOrDefault("report-interval", "10"));
+        this.password = options.getOrDefault("password", "desk123456");
+        this.seed = Long.parseLong(options.getOrDefault("seed", Long.toString(CatalogDataGenerator.SEED)));
+        this.output = Paths.get(options.getOrDefault("output", "target/loadtest"));
+        if (rate <= 0 || concurrency < 1 || deskCount < 1) {
+            throw new IllegalArgumentException("rate, concurrency and desks must be positive");
+        }
+
+        Map<Endpoint, Integer> mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        this.endpoints = mix.keySet().toArray(new Endpoint[0]);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += mix.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats(endpoint.name().toLowerCase(Locale.ROOT)));
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator(parseOptions(args));
+        generator.prepare();
+        generator.run();
+        generator.report();
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no positive weights: " + mix);
+        }
+        return weights;
+    }
+
+    /**
+     * 登录（必要时注册）所有柜台账号，并用游标分页取一批图书 ID 作为借书目标
+     */
+    void prepare() throws IOException, InterruptedException {
+        desks = new Desk[deskCount];
+        for (int i = 0; i < deskCount; i++) {
+            Desk desk = new Desk(i + 1);
+            if (login(desk) != 200) {
+                register(desk);
+            }
+            desks[i] = desk;
+        }
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = "";
+        while (ids.size() < bookSample) {
+            HttpResponse<String> response = exchange("GET", "/api/books?size=" + CURSOR_PAGE_SIZE
+                    + "&after=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8), desks[0].token, null);
+            JsonNode page = data(response);
+            for (JsonNode book : page.path("records")) {
+                ids.add(book.path("id").asLong());
+            }
+            if (!page.path("hasMore").asBoolean() || ids.size() >= bookSample) {
+                break;
+            }
+            cursor = page.path("nextCursor").asText();
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No books found at " + baseUrl);
+        }
+        bookIds = ids.stream().limit(bookSample).mapToLong(Long::longValue).toArray();
+        System.out.printf("Prepared %d desks and %d books against %s%n", desks.length, bookIds.length, baseUrl);
+    }
+
+    void run() throws IOException, InterruptedException {
+        Files.createDirectories(output);
+        long startMillis = System.currentTimeMillis();
+        logWriter = new HistogramLogWriter(output.resolve("latency.hlog").toFile());
+        logWriter.outputLogFormatVersion();
+        logWriter.outputStartTime(startMillis);
+        logWriter.setBaseTime(startMillis);
+        logWriter.outputLegend();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long start = System.nanoTime();
+        measureFromNanos = start + warmupNanos;
+        long end = measureFromNanos + durationNanos;
+        reporter.scheduleAtFixedRate(() -> reportInterval(start),
+                reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+
+        // 调度线程只负责按计划时刻投递，随机数都在这里取，同一 seed 的到达序列可复现
+        Random random = new Random(seed);
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        double offset = 0;
+        while (true) {
+            offset += poisson ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+            long intended = start + (long) offset;
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Call call = nextCall(random, intended);
+            maxBacklog.accumulateAndGet(backlog.incrementAndGet(), Math::max);
+            workers.execute(() -> {
+                backlog.decrementAndGet();
+                execute(call);
+            });
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(timeout.toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+        reporter.shutdown();
+        reporter.awaitTermination(1, TimeUnit.MINUTES);
+        reportInterval(start);
+        logWriter.close();
+    }
+
+    private Call nextCall(Random random, long intended) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= pick) {
+            index++;
+        }
+        Endpoint endpoint = endpoints[index];
+        Desk desk = desks[random.nextInt(desks.length)];
+        long target = 0;
+        if (endpoint == Endpoint.RETURN || endpoint == Endpoint.RENEW) {
+            Long recordId = desk.records.poll();
+            if (recordId == null) {
+                endpoint = Endpoint.BORROW;
+            } else {
+                target = recordId;
+            }
+        }
+        if (endpoint == Endpoint.BORROW) {
+            target = bookIds[random.nextInt(bookIds.length)];
+        }
+        String keyword = endpoint == Endpoint.SEARCH ? CatalogDataGenerator.keyword(random) : null;
+        return new Call(endpoint, desk, target, keyword, intended);
+    }
+
+    private void execute(Call call) {
+        long sent = System.nanoTime();
+        int status = -1;
+        try {
+            status = send(call);
+        } catch (IOException e) {
+            // 超时和连接失败按 -1 计入 failed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long done = System.nanoTime();
+        if (call.intendedNanos() >= measureFromNanos) {
+            stats.get(call.endpoint()).record(call.intendedNanos(), sent, done, status);
+        }
+        // 访问令牌过期后重新登录，登录本身作为一次独立的请求计入
+        if (status == 401 && call.endpoint() != Endpoint.LOGIN) {
+            execute(new Call(Endpoint.LOGIN, call.desk(), 0, null, System.nanoTime()));
+        }
+    }
+
+    private int send(Call call) throws IOException, InterruptedException {
+        Desk desk = call.desk();
+        HttpResponse<String> response;
+        switch (call.endpoint()) {
+            case LOGIN:
+                return login(desk);
+            case SEARCH:
+                response = exchange("GET", "/api/books?page=1&size=10&keyword="
+                        + URLEncoder.encode(call.keyword(), StandardCharsets.UTF_8), desk.token, null);
+                break;
+            case BORROW:
+                response = exchange("POST", "/api/borrow/" + call.target(), desk.token, null);
+                if (response.statusCode() == 200) {
+                    desk.records.offer(data(response).path("id").asLong());
+                }
+                break;
+            case RETURN:
+                response = exchange("PUT", "/api/borrow/return/" + call.target(), desk.token, null);
+                if (response.statusCode() >= 500) {
+                    desk.records.offer(call.target());
+                }
+                break;
+            case RENEW:
+                // 续借不改变借阅状态，记录放回队尾，之后仍会被归还
+                response = exchange("PUT", "/api/borrow/renew/" + call.target(), desk.token, null);
+                desk.records.offer(call.target());
+                break;
+            case DASHBOARD:
+                response = exchange("GET", "/api/dashboard", desk.token, null);
+                break;
+            default:
+                throw new IllegalStateException("Unknown endpoint: " + call.endpoint());
+        }
+        return response.statusCode();
+    }
+
+    private int login(Desk desk) throws IOException, InterruptedException {
+        HttpResponse<String> response = exchange("POST", "/api/auth/login", null,
+                objectMapper.writeValueAsString(Map.of("username", desk.username, "password", password)));
+        if (response.statusCode() == 200) {
+            desk.token = data(response).path("token").asText();
+        }
+        return response.statusCode();
+    }
+
+    private void register(Desk desk) throws IOException, InterruptedException {
+        Map<String, String> body = Map.of(
+                "username", desk.username,
+                "password", password,
+                "realName", "柜台" + desk.number,
+                "phone", String.format("137%08d", desk.number),
+                "email", desk.username + "@loadtest.com");
+        HttpResponse<String> response = exchange("POST", "/api/auth/register", null,
+                objectMapper.writeValueAsString(body));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Cannot log in or register " + desk.username + ": " + response.body());
+        }
+        desk.token = data(response).path("token").asText();
+    }
+
+    private HttpResponse<String> exchange(String method, String path, String token, String body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (body != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode data(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected response " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body()).path("data");
+    }
+
+    private synchronized void reportInterval(long start) {
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+        StringBuilder line = new StringBuilder(String.format("[%5ds] backlog %d", elapsedSeconds, backlog.get()));
+        if (System.nanoTime() < measureFromNanos) {
+            line.append(" (warmup)");
+        }
+        for (EndpointStats endpointStats : stats.values()) {
+            Histogram interval = endpointStats.drainInterval();
+            if (interval.getTotalCount() == 0) {
+                continue;
+            }
+            logWriter.outputIntervalHistogram(interval);
+            line.append(String.format(" | %s %d p99 %.1fms", endpointStats.getName(), interval.getTotalCount(),
+                    interval.getValueAtPercentile(99) / 1000.0));
+        }
+        System.out.println(line);
+    }
+
+    void report() throws IOException {
+        double seconds = durationNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.printf("%nOpen-model load test - arrival: %s %.1f/s, measured: %.0fs, desks: %d, concurrency: %d, max backlog: %d%n",
+                poisson ? "poisson" : "uniform", rate, seconds, deskCount, concurrency, maxBacklog.get());
+        System.out.println("Latency from intended send time in ms (svc p99: from actual send time)");
+        System.out.printf("%-10s %8s %8s %6s %6s %9s %8s %8s %8s %8s %8s %9s%n",
+                "endpoint", "count", "ok", "4xx", "failed", "rate/s", "p50", "p90", "p99", "p99.9", "max", "svc p99");
+
+        Histogram allLatency = EndpointStats.newHistogram();
+        Histogram allService = EndpointStats.newHistogram();
+        long ok = 0;
+        long rejected = 0;
+        long failed = 0;
+        for (EndpointStats endpointStats : stats.values()) {
+            Histogram latency = endpointStats.getLatency();
+            if (latency.getTotalCount() == 0) {
+                continue;
+            }
+            printRow(endpointStats.getName(), latency, endpointStats.getService(), endpointStats.getSucceeded(),
+                    endpointStats.getRejected(), endpointStats.getFailed(), seconds);
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(output.resolve(endpointStats.getName() + ".hgrm")), true, "UTF-8")) {
+                latency.outputPercentileDistribution(out, 5, 1000.0);
+            }
+            allLatency.add(latency);
+            allService.add(endpointStats.getService());
+            ok += endpointStats.getSucceeded();
+            rejected += endpointStats.getRejected();
+            failed += endpointStats.getFailed();
+        }
+        printRow("all", allLatency, allService, ok, rejected, failed, seconds);
+        System.out.printf("Reports written to %s%n", output.toAbsolutePath());
+    }
+
+    private static void printRow(String name, Histogram latency, Histogram service,
+                                 long ok, long rejected, long failed, double seconds) {
+        System.out.printf("%-10s %8d %8d %6d %6d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %9.2f%n",
+                name, latency.getTotalCount(), ok, rejected, failed, latency.getTotalCount() / seconds,
+                latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(90) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0, latency.getValueAtPercentile(99.9) / 1000.0,
+                latency.getMaxValue() / 1000.0, service.getValueAtPercentile(99) / 1000.0);
+    }
+
+    /**
+     * 一个柜台：固定的读者账号、当前访问令牌，以及本柜台借出尚未归还的借阅记录
+     */
+    static final class Desk {
+
+        private final int number;
+
+        private final String username;
+
+        private final Queue<Long> records = new ConcurrentLinkedQueue<>();
+
+        private volatile String token;
+
+        Desk(int number) {
+            this.number = number;
+            this.username = "desk" + number;
+        }
+    }
+
+    private record Call(Endpoint endpoint, Desk desk, long target, String keyword, long intendedNanos) {
+    }
+}
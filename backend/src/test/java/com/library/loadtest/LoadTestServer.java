@@ -0,0 +1,50 @@
+package com.library.loadtest;
+
+import com.library.LibraryManagementSystemApplication;
+import com.library.benchmark.LibraryDataGenerator;
+import com.library.search.InMemoryBookSearchEngine;
+import com.library.service.impl.DashboardServiceImpl;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测用的单机服务端：以 bench profile（嵌入式 H2，关闭 Redis、限流和后台任务）启动完整应用，
+ * 写入 LibraryDataGenerator 的整库数据后对外提供 HTTP 服务，直到进程被结束。
+ * 参数：--books=图书规模（默认 10000）、--port=监听端口（默认 8080）。
+ * 压测 MySQL 时不需要它，直接以关闭限流（RATE_LIMIT_ENABLED=false）的正常配置启动应用即可。
+ */
+public final class LoadTestServer {
+
+    private LoadTestServer() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = LoadGenerator.parseOptions(args);
+        int books = Integer.parseInt(options.getOrDefault("books", "10000"));
+        int port = Integer.parseInt(options.getOrDefault("port", "8080"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryManagementSystemApplication.class)
+                .profiles("bench")
+                .properties("server.port=" + port)
+                .run();
+        // 与 LibraryState 相同：等启动时的异步索引构建完成后再写数据，之后重建索引和统计快照
+        InMemoryBookSearchEngine searchEngine = context.getBean(InMemoryBookSearchEngine.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!searchEngine.isReady()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Search index was not built on startup");
+            }
+            Thread.onSpinWait();
+        }
+        LibraryDataGenerator.load(context.getBean(JdbcTemplate.class), books);
+        searchEngine.rebuildFromDatabase();
+        context.getBean(DashboardServiceImpl.class).reconcileStats();
+
+        System.out.printf("Load test server ready - port: %d, books: %d, readers: %d%n",
+                port, books, LibraryDataGenerator.users(books));
+    }
+}
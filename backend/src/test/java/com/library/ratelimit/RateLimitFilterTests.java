@@ -0,0 +1,117 @@
+package com.library.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTests {
+
+    private final RateLimitFilter filter = filter(
+            policy("login", "/api/auth/login", null, RateLimitProperties.KeyType.IP, 3),
+            policy("search", "/api/books", "keyword", RateLimitProperties.KeyType.USER, 2));
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rejectsBurstBeyondCapacityPerIp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, send(login("10.0.0.1")).getStatus());
+        }
+        MockHttpServletResponse rejected = send(login("10.0.0.1"));
+
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertEquals(200, send(login("10.0.0.2")).getStatus());
+    }
+
+    @Test
+    void countsAuthenticatedUsersSeparatelyAndOnlyWhenParamPresent() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            assertEquals(200, sendAs(1L, search("java")).getStatus());
+        }
+        assertEquals(429, sendAs(1L, search("java")).getStatus());
+        assertEquals(200, sendAs(2L, search("java")).getStatus());
+        assertEquals(200, sendAs(1L, search(null)).getStatus());
+    }
+
+    @Test
+    void trustsOnlyProxyAppendedForwardedEntries() {
+        MockHttpServletRequest request = login("10.0.0.9");
+        request.addHeader("X-Forwarded-For", "1.1.1.1, 203.0.113.7");
+
+        assertEquals("10.0.0.9", RateLimitFilter.clientIp(request, 0));
+        assertEquals("203.0.113.7", RateLimitFilter.clientIp(request, 1));
+        assertEquals("1.1.1.1", RateLimitFilter.clientIp(request, 5));
+    }
+
+    @Test
+    void tokenBucketRefillsAfterInterval() {
+        long interval = 1_000_000L;
+        TokenBucket bucket = new TokenBucket(0);
+
+        assertEquals(0, bucket.tryAcquire(0, interval, 2 * interval));
+        assertEquals(0, bucket.tryAcquire(0, interval, 2 * interval));
+        assertEquals(interval, bucket.tryAcquire(0, interval, 2 * interval));
+        assertEquals(0, bucket.tryAcquire(interval, interval, 2 * interval));
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletResponse sendAs(Long userId, MockHttpServletRequest request) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
+        return send(request);
+    }
+
+    private static MockHttpServletRequest login(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(ip);
+        return request;
+    }
+
+    private static MockHttpServletRequest search(String keyword) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        if (keyword != null) {
+            request.setParameter("keyword", keyword);
+        }
+        return request;
+    }
+
+    private static RateLimitProperties.Policy policy(String name, String path, String queryParam,
+                                                     RateLimitProperties.KeyType key, int capacity) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName(name);
+        policy.setPath(path);
+        policy.setQueryParam(queryParam);
+        policy.setKey(key);
+        policy.setCapacity(capacity);
+        policy.setRefillPerSecond(0.01);
+        return policy;
+    }
+
+    private static RateLimitFilter filter(RateLimitProperties.Policy... policies) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPolicies(List.of(policies));
+        RateLimiter limiter = new RateLimiter(properties, (StringRedisTemplate) null, new SimpleMeterRegistry());
+        return new RateLimitFilter(limiter, properties, new ObjectMapper());
+    }
+}
@@ -0,0 +1,95 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryBookSearchEngineTests {
+
+    private InMemoryBookSearchEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new InMemoryBookSearchEngine(null);
+        engine.rebuild(List.of(
+                book(1L, "9787115428028", "深入理解计算机系统", "Randal E. Bryant"),
+                book(2L, "9787115438464", "深入理解Java虚拟机", "周志明"),
+                book(3L, "9787121315523", "Java编程思想", "Bruce Eckel"),
+                book(4L, "9787020002207", "红楼梦", "曹雪芹")
+        ));
+    }
+
+    @Test
+    void matchesCjkSubstringsThroughBigrams() {
+        SearchHits hits = engine.search("理解", 0, 10);
+        assertEquals(2, hits.getTotal());
+        assertEquals(List.of(1L, 2L), hits.getIds());
+
+        assertEquals(List.of(4L), engine.search("楼", 0, 10).getIds());
+        assertEquals(0, engine.search("梦楼", 0, 10).getTotal());
+    }
+
+    @Test
+    void matchesLatinPrefixesCaseInsensitively() {
+        SearchHits hits = engine.search("JAV", 0, 10);
+        assertEquals(2, hits.getTotal());
+        // 书名以关键词开头的排在前面
+        assertEquals(3L, hits.getIds().get(0));
+        assertEquals(List.of(1L), engine.search("bryant", 0, 10).getIds());
+    }
+
+    @Test
+    void isbnPrefixRanksExactMatchFirst() {
+        assertEquals(List.of(1L), engine.search("978711542", 0, 10).getIds());
+        assertEquals(2, engine.search("9787115", 0, 10).getTotal());
+        assertEquals(List.of(4L), engine.search("978-7020-002207", 0, 10).getIds());
+    }
+
+    @Test
+    void followsAddUpdateAndDelete() {
+        engine.index(book(5L, "9787532749451", "活着", "余华"));
+        assertEquals(List.of(5L), engine.search("活着", 0, 10).getIds());
+
+        engine.index(book(5L, "9787532749451", "许三观卖血记", "余华"));
+        assertEquals(0, engine.search("活着", 0, 10).getTotal());
+        assertEquals(List.of(5L), engine.search("余华", 0, 10).getIds());
+
+        engine.remove(5L);
+        assertTrue(engine.search("余华", 0, 10).getIds().isEmpty());
+    }
+
+    @Test
+    void compactionDropsTombstonesLeftByUpdates() {
+        for (int i = 0; i < 1100; i++) {
+            engine.index(book(5L, "9787532749451", "活着 第" + i + "版", "余华"));
+        }
+        assertEquals(1, engine.search("余华", 0, 10).getTotal());
+
+        engine.compact();
+
+        assertEquals(0, engine.tombstones());
+        assertEquals(List.of(5L), engine.search("活着 第1099版", 0, 10).getIds());
+        assertEquals(List.of(1L), engine.search("bryant", 0, 10).getIds());
+    }
+
+    @Test
+    void pagesThroughRankedHits() {
+        SearchHits page = engine.search("深入", 1, 1);
+        assertEquals(2, page.getTotal());
+        assertEquals(1, page.getIds().size());
+    }
+
+    private static Book book(Long id, String isbn, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+}
@@ -0,0 +1,79 @@
+package com.library.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.ExceptionTranslationFilter;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 令牌过滤器接上异常转换和授权过滤器，验证被拒的令牌在受保护接口上得到 401 而不是 403
+ */
+class JwtAuthenticationFilterTests {
+
+    private static final String SECRET = "library-management-system-secret-key-2024-very-long-secret-key";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60000L, 600000L, 0);
+
+    private final JwtAuthenticationFilter filter = filter(jwtUtil);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void expiredTokenGetsUnauthorized() throws Exception {
+        JwtUtil expired = new JwtUtil(SECRET, -1000L, -1000L, 0);
+        MockHttpServletResponse response = send(filter(expired), expired.generateToken("alice", 1L, "USER"));
+
+        assertEquals(401, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"code\":401"));
+    }
+
+    @Test
+    void refreshTokenCannotAccessProtectedRoutes() throws Exception {
+        assertEquals(401, send(filter, jwtUtil.generateRefreshToken("bob", 2L, "USER")).getStatus());
+    }
+
+    @Test
+    void validAccessTokenPassesThrough() throws Exception {
+        assertEquals(200, send(filter, jwtUtil.generateToken("carol", 3L, "USER")).getStatus());
+    }
+
+    private static MockHttpServletResponse send(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+            }
+        }, filter,
+                new ExceptionTranslationFilter(new JsonAuthenticationEntryPoint(new ObjectMapper())),
+                new AuthorizationFilter(AuthenticatedAuthorizationManager.authenticated()))
+                .doFilter(request, response);
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+
+    private static JwtAuthenticationFilter filter(JwtUtil jwtUtil) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "revocationStore", new TokenRevocationStore(600000L, 1000, null));
+        return filter;
+    }
+}
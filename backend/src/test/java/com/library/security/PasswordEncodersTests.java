@@ -0,0 +1,74 @@
+package com.library.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncodersTests {
+
+    // sys_user.password 列宽，见 V5__widen_user_password.sql
+    private static final int PASSWORD_COLUMN_LENGTH = 255;
+
+    @Test
+    void verifiesLegacyUnprefixedBcryptHashes() {
+        PasswordEncoder encoder = PasswordEncoders.create(PasswordEncoders.BCRYPT, 4);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertFalse(encoder.matches("wrong", legacy));
+        assertFalse(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void requestsRehashWhenCostChangesInEitherDirection() {
+        PasswordEncoder encoder = PasswordEncoders.create(PasswordEncoders.BCRYPT, 5);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertEquals(5, PasswordEncoders.bcryptCost(encoder.encode("secret")));
+    }
+
+    @Test
+    void requestsRehashWhenAlgorithmChanges() {
+        String bcrypt = new BCryptPasswordEncoder(4).encode("secret");
+        PasswordEncoder encoder = PasswordEncoders.create(PasswordEncoders.PBKDF2, 4);
+
+        assertTrue(encoder.matches("secret", bcrypt));
+        assertTrue(encoder.upgradeEncoding(bcrypt));
+        String pbkdf2 = encoder.encode("secret");
+        assertTrue(pbkdf2.startsWith("{pbkdf2}"));
+        assertFalse(encoder.upgradeEncoding(pbkdf2));
+    }
+
+    @Test
+    void encodedHashesFitPasswordColumn() {
+        String longest = "p".repeat(72);
+        for (String algorithm : new String[]{PasswordEncoders.BCRYPT, PasswordEncoders.PBKDF2}) {
+            String hash = PasswordEncoders.create(algorithm, 4).encode(longest);
+            assertTrue(hash.length() <= PASSWORD_COLUMN_LENGTH, algorithm + " hash length " + hash.length());
+        }
+    }
+
+    @Test
+    void verifiedCredentialCacheSkipsHashingUntilHashChanges() {
+        PasswordEncoder encoder = PasswordEncoders.create(PasswordEncoders.BCRYPT, 4);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordVerifier verifier = new PasswordVerifier(encoder, registry, 1, 4, 5000, Duration.ofMinutes(1), 100);
+        String hash = encoder.encode("secret");
+
+        assertTrue(verifier.matches("admin", "secret", hash));
+        assertTrue(verifier.matches("admin", "secret", hash));
+        assertFalse(verifier.matches("admin", "wrong", hash));
+        assertTrue(verifier.matches("admin", "secret", encoder.encode("secret")));
+
+        assertEquals(1, registry.get("library.password.verifications").tag("result", "cache_hit").counter().count());
+        assertEquals(3, registry.get("library.password.verifications").tag("result", "hashed").counter().count());
+        verifier.shutdown();
+    }
+}
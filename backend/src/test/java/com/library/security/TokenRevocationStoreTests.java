@@ -0,0 +1,78 @@
+package com.library.security;
+
+import com.library.util.JwtPrincipal;
+import com.library.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationStoreTests {
+
+    private static final String SECRET = "library-management-system-secret-key-2024-very-long-secret-key";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60000L, 600000L, 0);
+
+    private final TokenRevocationStore store = new TokenRevocationStore(600000L, 1000, null);
+
+    @Test
+    void revokesOnlyTheGivenToken() {
+        JwtPrincipal revoked = jwtUtil.verify(jwtUtil.generateToken("alice", 1L, "USER"));
+        JwtPrincipal other = jwtUtil.verify(jwtUtil.generateToken("alice", 1L, "USER"));
+
+        store.revoke(revoked);
+
+        assertTrue(store.isRevoked(revoked));
+        assertFalse(store.isRevoked(other));
+    }
+
+    @Test
+    void revokeAllRejectsEveryTokenIssuedBeforeCutoff() {
+        JwtPrincipal access = jwtUtil.verify(jwtUtil.generateToken("bob", 2L, "USER"));
+        JwtPrincipal refresh = jwtUtil.verify(jwtUtil.generateRefreshToken("bob", 2L, "USER"));
+        JwtPrincipal otherUser = jwtUtil.verify(jwtUtil.generateToken("carol", 3L, "USER"));
+
+        store.revokeAll(2L);
+
+        assertTrue(store.isRevoked(access));
+        assertTrue(store.isRevoked(refresh));
+        assertFalse(store.isRevoked(otherUser));
+
+        long later = System.currentTimeMillis() + 2000;
+        JwtPrincipal reissued = new JwtPrincipal("bob", 2L, "USER", UUID.randomUUID(), JwtPrincipal.ACCESS,
+                later, later + 60000);
+        assertFalse(store.isRevoked(reissued));
+    }
+
+    @Test
+    void legacyTokenWithoutIdFallsBackToUserRevocation() {
+        long now = System.currentTimeMillis();
+        JwtPrincipal legacy = new JwtPrincipal("dave", 4L, "USER", null, JwtPrincipal.ACCESS, now - 1000, now + 60000);
+
+        store.revoke(legacy);
+
+        assertTrue(store.isRevoked(legacy));
+    }
+
+    @Test
+    void bloomFilterNeverMissesInsertedIds() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        UUID[] ids = new UUID[10000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+            filter.put(ids[i]);
+        }
+        for (UUID id : ids) {
+            assertTrue(filter.mightContain(id));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,176 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.mapper.BookMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并发借阅库存扣减测试
+ * 对同一本书发起数百个并行扣减，验证条件更新不会超卖，且吞吐高于旧的先查后写；
+ * 使用 bench profile 的嵌入式 H2，不依赖外部数据库
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+class BorrowConcurrencyTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(BorrowConcurrencyTests.class);
+
+    private static final int STOCK = 50;
+    private static final int REQUESTS = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> createdBookIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        createdBookIds.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // deleteById 是逻辑删除，测试数据直接物理删除
+        createdBookIds.forEach(id -> jdbcTemplate.update("DELETE FROM book WHERE id = ?", id));
+    }
+
+    @Test
+    void concurrentBorrowsNeverOversell() throws InterruptedException {
+        Long bookId = createBook();
+        AtomicInteger granted = new AtomicInteger();
+
+        runConcurrently(() -> {
+            if (bookService.decreaseAvailableQuantity(bookId)) {
+                granted.incrementAndGet();
+            }
+        });
+
+        assertEquals(STOCK, granted.get());
+        assertEquals(0, bookMapper.selectById(bookId).getAvailableQuantity());
+    }
+
+    @Test
+    void readModifyWriteOversellsForComparison() throws InterruptedException {
+        Long bookId = createBook();
+        AtomicInteger granted = new AtomicInteger();
+
+        runConcurrently(() -> {
+            if (readModifyWrite(bookId)) {
+                granted.incrementAndGet();
+            }
+        });
+
+        // 并发回写互相覆盖，库存减到 0 之前已放出多于库存的借阅
+        assertTrue(granted.get() > STOCK, "granted " + granted.get() + " of " + STOCK);
+    }
+
+    @Test
+    void guardedUpdateOutpacesReadModifyWrite() throws InterruptedException {
+        // 库存充足，每个请求都走完整路径；先各跑一轮预热
+        for (int round = 0; round < 2; round++) {
+            Long guardedBook = createBook(REQUESTS);
+            Long legacyBook = createBook(REQUESTS);
+            long guarded = runConcurrently(() -> bookService.decreaseAvailableQuantity(guardedBook));
+            long legacy = runConcurrently(() -> readModifyWrite(legacyBook));
+            if (round == 1) {
+                logger.info("Guarded update {}ms, read-modify-write {}ms for {} requests", guarded, legacy, REQUESTS);
+                assertTrue(guarded < legacy, "guarded " + guarded + "ms, read-modify-write " + legacy + "ms");
+            }
+        }
+    }
+
+    @Test
+    void batchDecrementSkipsOutOfStockBooks() {
+        Long inStock = createBook();
+        Long soldOut = createBook(0);
+
+        Set<Long> decremented = bookService.decreaseAvailableQuantities(List.of(inStock, soldOut));
+
+        assertEquals(Set.of(inStock), decremented);
+        assertEquals(STOCK - 1, bookMapper.selectById(inStock).getAvailableQuantity());
+        assertEquals(0, bookMapper.selectById(soldOut).getAvailableQuantity());
+    }
+
+    /**
+     * 旧实现：先查询再整行回写
+     */
+    private boolean readModifyWrite(Long bookId) {
+        Book book = bookMapper.selectById(bookId);
+        if (book.getAvailableQuantity() <= 0) {
+            return false;
+        }
+        Book current = bookMapper.selectById(bookId);
+        current.setAvailableQuantity(current.getAvailableQuantity() - 1);
+        bookMapper.updateById(current);
+        return true;
+    }
+
+    private Long createBook() {
+        return createBook(STOCK);
+    }
+
+    private Long createBook(int available) {
+        Book book = new Book();
+        book.setIsbn("T" + System.nanoTime() % 1_000_000_000_000L);
+        book.setTitle("并发测试图书");
+        book.setAuthor("test");
+        book.setTotalQuantity(Math.max(STOCK, available));
+        book.setAvailableQuantity(available);
+        bookMapper.insert(book);
+        createdBookIds.add(book.getId());
+        return book.getId();
+    }
+
+    private long runConcurrently(Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < REQUESTS; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                    logger.warn("Concurrent task failed: {}", e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        executor.shutdown();
+        assertEquals(0, failures.get());
+        return elapsed;
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.service.impl;
+
+import com.library.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 导入行校验与转换
+ */
+class BookImportServiceImplTests {
+
+    private static Map<String, String> row(String... keyValues) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            fields.put(BookImportServiceImpl.normalizeKey(keyValues[i]), keyValues[i + 1]);
+        }
+        return fields;
+    }
+
+    @Test
+    void convertsValidRowAndDefaultsAvailableToTotal() {
+        Book book = BookImportServiceImpl.toBook(row(
+                "isbn", " 9787115428028 ", "title", "深入理解计算机系统", "author", "Randal E. Bryant",
+                "publish_date", "2016-11-01", "categoryId", "1", "price", "139.00", "total_quantity", "5"),
+                Set.of(1L));
+
+        assertEquals("9787115428028", book.getIsbn());
+        assertEquals(LocalDate.of(2016, 11, 1), book.getPublishDate());
+        assertEquals(1L, book.getCategoryId());
+        assertEquals(new BigDecimal("139.00"), book.getPrice());
+        assertEquals(5, book.getTotalQuantity());
+        assertEquals(5, book.getAvailableQuantity());
+    }
+
+    @Test
+    void rejectsInvalidRows() {
+        Set<Long> categories = Set.of(1L);
+        assertThrows(IllegalArgumentException.class,
+                () -> BookImportServiceImpl.toBook(row("title", "无 ISBN", "author", "佚名"), categories));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookImportServiceImpl.toBook(row("isbn", "1", "title", "t", "author", "a",
+                        "categoryId", "9"), categories));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookImportServiceImpl.toBook(row("isbn", "1", "title", "t", "author", "a",
+                        "totalQuantity", "2", "availableQuantity", "3"), categories));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookImportServiceImpl.toBook(row("isbn", "1", "title", "t", "author", "a",
+                        "publishDate", "2016/11/01"), categories));
+        assertThrows(IllegalArgumentException.class,
+                () -> BookImportServiceImpl.toBook(row("isbn", "123456789012345678901", "title", "t",
+                        "author", "a"), categories));
+    }
+}
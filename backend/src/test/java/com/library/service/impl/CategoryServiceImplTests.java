@@ -0,0 +1,142 @@
+package com.library.service.impl;
+
+import com.library.dto.CategoryStats;
+import com.library.entity.Book;
+import com.library.entity.BookCategory;
+import com.library.entity.BorrowRecord;
+import com.library.event.BookChangedEvent;
+import com.library.event.BorrowEvent;
+import com.library.exception.BusinessException;
+import com.library.exception.ErrorCode;
+import com.library.mapper.BookCategoryMapper;
+import com.library.mapper.BookMapper;
+import com.library.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CategoryServiceImplTests {
+
+    private final BookCategoryMapper categoryMapper = mock(BookCategoryMapper.class);
+
+    private final BookMapper bookMapper = mock(BookMapper.class);
+
+    private final BookService bookService = mock(BookService.class);
+
+    private final CategoryServiceImpl service = new CategoryServiceImpl(categoryMapper, bookMapper, bookService);
+
+    @BeforeEach
+    void setUp() {
+        when(categoryMapper.selectList(any())).thenReturn(List.of(category(1L, "计算机"), category(2L, "文学")));
+        when(bookMapper.selectCategoryStats()).thenReturn(List.of(stats(1L, 3, 10, 7), stats(null, 1, 2, 2)));
+    }
+
+    @Test
+    void servesCategoriesFromSnapshotLoadedOnce() {
+        assertEquals("文学", service.getCategory(2L).getCategoryName());
+        assertNull(service.getCategory(9L));
+        assertEquals(2, service.listCategories().size());
+
+        verify(categoryMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    void maintainsRollupsFromEventsWithoutRequerying() {
+        assertStats(service.getCategoryStats().get(0), 3, 10, 7);
+
+        service.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.ADDED, book(1L, 4, 4)));
+        when(bookService.getBookById(5L)).thenReturn(book(1L, 4, 4));
+        service.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.BORROWED, record(5L)));
+        service.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.BORROWED, record(5L)));
+        service.onBorrowEvent(new BorrowEvent(BorrowEvent.Type.RETURNED, record(5L)));
+
+        List<CategoryStats> stats = service.getCategoryStats();
+        assertStats(stats.get(0), 4, 14, 10);
+        assertEquals(4, stats.get(0).getBorrowedCopies());
+        assertStats(stats.get(1), 0, 0, 0);
+        assertNull(stats.get(2).getCategoryId());
+        verify(bookMapper, times(1)).selectCategoryStats();
+    }
+
+    @Test
+    void appliesUpdateDeltasIncludingCategoryMove() {
+        Book previous = book(1L, 4, 3);
+        Book changes = new Book();
+        changes.setId(5L);
+        changes.setTotalQuantity(6);
+        service.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, changes, previous));
+        assertStats(service.getCategoryStats().get(0), 3, 12, 7);
+
+        Book moved = new Book();
+        moved.setId(5L);
+        moved.setCategoryId(2L);
+        service.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, moved, book(1L, 6, 3)));
+
+        List<CategoryStats> stats = service.getCategoryStats();
+        assertStats(stats.get(0), 2, 6, 4);
+        assertStats(stats.get(1), 1, 6, 3);
+        verify(bookMapper, times(1)).selectCategoryStats();
+    }
+
+    @Test
+    void refusesToDeleteCategoryThatStillHasBooks() {
+        when(bookMapper.existsByCategoryId(1L)).thenReturn(true);
+        BusinessException error = assertThrows(BusinessException.class, () -> service.deleteCategory(1L));
+        assertEquals(ErrorCode.CATEGORY_IN_USE, error.getErrorCode());
+
+        service.deleteCategory(2L);
+        verify(categoryMapper).deleteById(2L);
+    }
+
+    @Test
+    void rejectsDuplicateNames() {
+        BookCategory duplicate = new BookCategory();
+        duplicate.setCategoryName("文学");
+
+        BusinessException error = assertThrows(BusinessException.class, () -> service.addCategory(duplicate));
+        assertEquals(ErrorCode.CATEGORY_NAME_EXISTS, error.getErrorCode());
+        verify(categoryMapper, never()).insert(any(BookCategory.class));
+    }
+
+    private static void assertStats(CategoryStats stats, long titles, long total, long available) {
+        assertEquals(titles, stats.getTitles());
+        assertEquals(total, stats.getTotalCopies());
+        assertEquals(available, stats.getAvailableCopies());
+    }
+
+    private static BookCategory category(Long id, String name) {
+        BookCategory category = new BookCategory();
+        category.setId(id);
+        category.setCategoryName(name);
+        return category;
+    }
+
+    private static CategoryStats stats(Long categoryId, long titles, long total, long available) {
+        CategoryStats stats = new CategoryStats();
+        stats.setCategoryId(categoryId);
+        stats.setTitles(titles);
+        stats.setTotalCopies(total);
+        stats.setAvailableCopies(available);
+        return stats;
+    }
+
+    private static Book book(Long categoryId, int total, int available) {
+        Book book = new Book();
+        book.setId(5L);
+        book.setCategoryId(categoryId);
+        book.setTotalQuantity(total);
+        book.setAvailableQuantity(available);
+        return book;
+    }
+
+    private static BorrowRecord record(Long bookId) {
+        BorrowRecord record = new BorrowRecord();
+        record.setBookId(bookId);
+        return record;
+    }
+}
@@ -0,0 +1,34 @@
+package com.library.service.impl;
+
+import com.library.mapper.BorrowRecordMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OverdueSweeperTests {
+
+    private final BorrowRecordMapper mapper = mock(BorrowRecordMapper.class);
+
+    @Test
+    void updatesInChunksUntilFewerThanChunkSizeRemain() {
+        when(mapper.markOverdue(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 37);
+        OverdueSweeper sweeper = new OverdueSweeper(mapper, null, 100, 60000);
+
+        assertEquals(237, sweeper.sweepChunks());
+        verify(mapper, times(3)).markOverdue(any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    void stopsWhenTimeBudgetIsExhausted() {
+        when(mapper.markOverdue(any(LocalDateTime.class), eq(10))).thenReturn(10);
+        OverdueSweeper sweeper = new OverdueSweeper(mapper, null, 10, 0);
+
+        assertEquals(10, sweeper.sweepChunks());
+        verify(mapper, times(1)).markOverdue(any(LocalDateTime.class), eq(10));
+    }
+}
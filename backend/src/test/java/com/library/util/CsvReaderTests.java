@@ -0,0 +1,42 @@
+package com.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTests {
+
+    private static CsvReader reader(String text) {
+        return new CsvReader(new BufferedReader(new StringReader(text)));
+    }
+
+    @Test
+    void parsesQuotedFieldsWithCommasQuotesAndNewlines() throws Exception {
+        CsvReader csv = reader("\uFEFFisbn,title,description\n"
+                + "9787115428028,\"深入理解计算机系统, 第3版\",\"经典\"\"教材\"\n"
+                + "\n"
+                + "9787111544937,算法导论,\"第一行\n第二行\"\n"
+                + "9787020002207,红楼梦,\n");
+
+        assertEquals(List.of("isbn", "title", "description"), csv.next());
+        assertEquals(List.of("9787115428028", "深入理解计算机系统, 第3版", "经典\"教材"), csv.next());
+        assertEquals(2, csv.getRecordLine());
+        assertEquals(List.of("9787111544937", "算法导论", "第一行\n第二行"), csv.next());
+        assertEquals(4, csv.getRecordLine());
+        assertEquals(List.of("9787020002207", "红楼梦", ""), csv.next());
+        assertEquals(6, csv.getRecordLine());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void unterminatedQuoteIsRejected() throws Exception {
+        CsvReader csv = reader("isbn,title\n1,\"未闭合\n");
+        csv.next();
+
+        assertThrows(IllegalArgumentException.class, csv::next);
+    }
+}
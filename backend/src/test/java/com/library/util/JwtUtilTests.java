@@ -0,0 +1,55 @@
+package com.library.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTests {
+
+    private static final String SECRET = "library-management-system-secret-key-2024-very-long-secret-key";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60000L, 600000L, 100);
+
+    @Test
+    void verifyReturnsAllClaimsFromOneParse() {
+        JwtPrincipal principal = jwtUtil.verify(jwtUtil.generateToken("alice", 7L, "ADMIN"));
+
+        assertEquals("alice", principal.getUsername());
+        assertEquals(7L, principal.getUserId());
+        assertEquals("ADMIN", principal.getRole());
+        assertFalse(principal.isExpired(System.currentTimeMillis()));
+    }
+
+    @Test
+    void cachedTokenIsReusedButTamperedTokenIsRejected() {
+        String token = jwtUtil.generateToken("bob", 8L, "USER");
+        assertSame(jwtUtil.verify(token), jwtUtil.verify(token));
+
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + jwtUtil.generateToken("bob", 1L, "ADMIN").split("\\.")[1] + "." + parts[2];
+        assertThrows(JwtException.class, () -> jwtUtil.verify(forged));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtUtil shortLived = new JwtUtil(SECRET, -1000L, -1000L, 100);
+        String token = shortLived.generateToken("carol", 9L, "USER");
+
+        assertThrows(ExpiredJwtException.class, () -> shortLived.verify(token));
+    }
+
+    @Test
+    void accessAndRefreshTokensCarryDistinctIdsAndTypes() {
+        JwtPrincipal access = jwtUtil.verify(jwtUtil.generateToken("dave", 10L, "USER"));
+        JwtPrincipal refresh = jwtUtil.verify(jwtUtil.generateRefreshToken("dave", 10L, "USER"));
+
+        assertTrue(access.isAccessToken());
+        assertTrue(refresh.isRefreshToken());
+        assertNotNull(access.getTokenId());
+        assertNotEquals(access.getTokenId(), refresh.getTokenId());
+        assertTrue(refresh.getExpiresAt() > access.getExpiresAt());
+        assertTrue(access.getIssuedAt() <= System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,82 @@
+-- 基准测试用 H2 (MODE=MySQL) 表结构，对应 db/migration 的 MySQL 结构，省略外键和 FULLTEXT 索引
+CREATE TABLE sys_user (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    real_name VARCHAR(50) NOT NULL,
+    phone VARCHAR(20),
+    email VARCHAR(100),
+    role VARCHAR(20) NOT NULL DEFAULT 'USER',
+    status TINYINT NOT NULL DEFAULT 1,
+    deleted TINYINT NOT NULL DEFAULT 0,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE book_category (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    category_name VARCHAR(50) NOT NULL,
+    description VARCHAR(200),
+    deleted TINYINT NOT NULL DEFAULT 0,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE book (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    isbn VARCHAR(20) NOT NULL UNIQUE,
+    title VARCHAR(100) NOT NULL,
+    author VARCHAR(50) NOT NULL,
+    publisher VARCHAR(50),
+    publish_date DATE,
+    category_id BIGINT,
+    price DECIMAL(10,2),
+    total_quantity INT NOT NULL DEFAULT 0,
+    available_quantity INT NOT NULL DEFAULT 0,
+    location VARCHAR(50),
+    description TEXT,
+    cover_url VARCHAR(200),
+    deleted TINYINT NOT NULL DEFAULT 0,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_book_category_id ON book (category_id);
+
+CREATE TABLE borrow_record (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    borrow_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    due_date DATETIME NOT NULL,
+    return_date DATETIME,
+    status VARCHAR(20) NOT NULL DEFAULT 'BORROWED',
+    renew_count INT NOT NULL DEFAULT 0,
+    deleted TINYINT NOT NULL DEFAULT 0,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_borrow_book_id ON borrow_record (book_id);
+CREATE INDEX idx_borrow_borrow_date ON borrow_record (borrow_date);
+CREATE INDEX idx_borrow_user_borrow_date ON borrow_record (user_id, borrow_date);
+CREATE INDEX idx_borrow_status_due_date ON borrow_record (status, due_date);
+
+CREATE TABLE operation_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT,
+    username VARCHAR(50),
+    operation VARCHAR(50) NOT NULL,
+    method VARCHAR(200),
+    params TEXT,
+    ip VARCHAR(50),
+    status TINYINT NOT NULL DEFAULT 1,
+    error_msg TEXT,
+    execute_time BIGINT,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO book_category (category_name, description) VALUES
+('计算机', '计算机科学与技术类书籍'),
+('文学', '文学类书籍'),
+('历史', '历史类书籍'),
+('科学', '自然科学类书籍'),
+('艺术', '艺术类书籍');
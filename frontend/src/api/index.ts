@@ -15,6 +15,21 @@ export interface Book {
   description: string
 }
 
+export interface BookCategory {
+  id: number
+  categoryName: string
+  description: string
+}
+
+export interface CategoryStats {
+  categoryId: number | null
+  categoryName: string
+  titles: number
+  totalCopies: number
+  availableCopies: number
+  borrowedCopies: number
+}
+
 export interface BorrowRecord {
   id: number
   userId: number
@@ -66,14 +81,17 @@ export const authApi = {
     return api.post('/auth/register', data)
   },
   
-  logout: () => {
-    return api.post('/auth/logout')
+  // 显式带上令牌，调用方随后会清空本地存储
+  logout: (token: string, refreshToken?: string | null) => {
+    return api.post('/auth/logout', refreshToken ? { refreshToken } : undefined, {
+      headers: { Authorization: `Bearer ${token}` }
+    })
   }
 }
 
 export const bookApi = {
-  getList: (page: number, size: number, keyword?: string) => {
-    return api.get('/books', { params: { page, size, keyword } })
+  getList: (page: number, size: number, keyword?: string, categoryId?: number) => {
+    return api.get('/books', { params: { page, size, keyword, categoryId } })
   },
   
   getById: (id: number) => {
@@ -139,6 +157,16 @@ export interface DashboardResponse {
   recentRecords: DashboardRecord[]
 }
 
+export const categoryApi = {
+  getList: () => {
+    return api.get('/categories')
+  },
+
+  getStats: () => {
+    return api.get('/categories/stats')
+  }
+}
+
 export const dashboardApi = {
   getData: () => {
     return api.get('/dashboard')
@@ -26,6 +26,7 @@ export const useAuthStore = defineStore('auth', () => {
     token.value = response.data.token
     user.value = response.data
     localStorage.setItem('token', token.value)
+    localStorage.setItem('refreshToken', response.data.refreshToken)
     return response
   }
 
@@ -53,13 +54,22 @@ export const useAuthStore = defineStore('auth', () => {
     token.value = response.data.token
     user.value = response.data
     localStorage.setItem('token', token.value)
+    localStorage.setItem('refreshToken', response.data.refreshToken)
     return response
   }
 
   const logout = () => {
+    // 刷新令牌后新的访问令牌只写入了 localStorage，以它为准吊销当前令牌
+    const accessToken = localStorage.getItem('token') || token.value
+    const refreshToken = localStorage.getItem('refreshToken')
+    if (accessToken) {
+      // 服务端吊销令牌，失败不影响本地退出
+      authApi.logout(accessToken, refreshToken).catch(() => {})
+    }
     token.value = ''
     user.value = null
     localStorage.removeItem('token')
+    localStorage.removeItem('refreshToken')
   }
 
   return { token, user, isAuthenticated, login, register, logout }
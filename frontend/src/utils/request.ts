@@ -22,13 +22,46 @@ instance.interceptors.request.use(
   }
 )
 
+// 多个请求同时 401 时只刷新一次
+let refreshing: Promise<string> | null = null
+
+const refreshAccessToken = (): Promise<string> => {
+  const refreshToken = localStorage.getItem('refreshToken')
+  if (!refreshToken) {
+    return Promise.reject(new Error('no refresh token'))
+  }
+  refreshing ??= axios
+    .post('/api/auth/refresh', { refreshToken })
+    .then((res) => {
+      const token = res.data.data.token as string
+      localStorage.setItem('token', token)
+      return token
+    })
+    .finally(() => {
+      refreshing = null
+    })
+  return refreshing
+}
+
 instance.interceptors.response.use(
   (response: AxiosResponse) => {
     return response.data
   },
-  (error) => {
+  async (error) => {
+    const config = error.config
+    if (error.response?.status === 401 && config && !config._retried && !config.url?.startsWith('/auth/')) {
+      config._retried = true
+      try {
+        const token = await refreshAccessToken()
+        config.headers.Authorization = `Bearer ${token}`
+        return instance(config)
+      } catch {
+        // 刷新失败，按未登录处理
+      }
+    }
     if (error.response?.status === 401) {
       localStorage.removeItem('token')
+      localStorage.removeItem('refreshToken')
       window.location.href = '/login'
     }
     const message = error.response?.data?.message || error.message || '请求失败'